@@ -0,0 +1,79 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Our Analyzer interface turns question text and search queries into index terms.
+ * The search index runs its analyzer over titles and bodies when a question is indexed,
+ * and the same analyzer must be run over queries, so a query word and the words it
+ * should find end up as the same term.
+ *
+ * Implementations: WhitespaceAnalyzer (the original whitespace split) and
+ * EnglishAnalyzer (word tokenizer, stopwords and a light stemmer).
+ */
+public interface Analyzer {
+
+    /**
+     * Splits text into terms, keeping where each came from.
+     *
+     * text Title, body or query text (may be null)
+     * return The tokens in order of appearance
+     */
+    List<Token> analyze(String text);
+
+    /**
+     * Gets just the terms of a text, e.g. the keywords of a search query.
+     *
+     * text Title, body or query text (may be null)
+     * return The terms in order of appearance
+     */
+    default List<String> terms(String text) {
+        List<Token> tokens = analyze(text);
+        List<String> terms = new ArrayList<>(tokens.size());
+        for (Token token : tokens) {
+            terms.add(token.getTerm());
+        }
+        return terms;
+    }
+
+    /**
+     * One term with its word position and the characters [start, end) of the word
+     * it was made from. Positions count dropped stopwords, so words separated by a
+     * stopword are not adjacent.
+     */
+    final class Token {
+        private final String term;
+        private final int position;
+        private final int start;
+        private final int end;
+
+        public Token(String term, int position, int start, int end) {
+            this.term = term;
+            this.position = position;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return term + "@" + position + "[" + start + ", " + end + ")";
+        }
+    }
+}
\ No newline at end of file
@@ -17,7 +17,8 @@ public class Answer {
     // Answer attributes
     private String answerId;             // Unique identifier for the answer
     private String questionId;           // ID of the question this answer belongs to
-    private String content;              // Answer content (max 5000 characters)
+    private volatile String content;     // Answer content (max 5000 characters)
+    private volatile BodyStore.Ref contentRef; // Where the content is stored when kept out of memory
     private String author;               // Username of the person who answered
     private LocalDateTime createdAt;     // Timestamp when answer was created
     private LocalDateTime updatedAt;     // Timestamp when answer was last updated
@@ -75,7 +76,13 @@ public class Answer {
     }
     
     public String getContent() {
-        return content;
+        String text = content;
+        if (text != null) {
+            return text;
+        }
+        // The reference is published before content is cleared, and cleared after content is set
+        BodyStore.Ref ref = contentRef;
+        return ref != null ? ref.load() : content;
     }
     
     public String getAuthor() {
@@ -109,7 +116,14 @@ public class Answer {
         if (content.length() > MAX_CONTENT_LENGTH) {
             return false;
         }
-        this.content = content;
+        synchronized (this) {
+            BodyStore.Ref ref = contentRef;
+            if (ref != null) {
+                contentRef = ref.getStore().append(content);
+            } else {
+                this.content = content;
+            }
+        }
         this.updatedAt = LocalDateTime.now();
         return true;
     }
@@ -130,6 +144,38 @@ public class Answer {
         this.updatedAt = LocalDateTime.now();
     }
     
+    // Body Storage 
+    
+    /**
+     * Moves the content into a body store, keeping only a reference to it in memory.
+     * 
+     * store The store to append the content to
+     */
+    synchronized void moveContentTo(BodyStore store) {
+        BodyStore.Ref ref = contentRef;
+        if (ref != null && ref.getStore() == store) {
+            return;
+        }
+        String text = getContent();
+        if (text == null) {
+            return;
+        }
+        contentRef = store.append(text);
+        content = null;
+    }
+    
+    /**
+     * Loads the content back into memory if it was moved into a body store.
+     */
+    synchronized void keepContentInMemory() {
+        BodyStore.Ref ref = contentRef;
+        if (ref == null) {
+            return;
+        }
+        content = ref.load();
+        contentRef = null;
+    }
+    
     // Utility Methods 
     
     /**
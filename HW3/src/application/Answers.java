@@ -1,47 +1,104 @@
 package application;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implements our Answers class and manages a collection of all answers in the Q&A system.
  * Provides CRUD operations and filtering capabilities for answers.
+ * Thread-safe: reads never take the stripe locks, and writers lock only the stripe
+ * of the question whose answer list they change.
  */
 public class Answers {
     
+    private static final int LOCK_STRIPES = 64;
+    
+    // Order of a question's answers; answers posted at the same moment keep insertion order
+    private static final Comparator<Answer> OLDEST_FIRST = Comparator.comparing(Answer::getCreatedAt);
+    
+    // Newest first; ties broken by ID so answers posted at the same moment stay distinct
+    public static final Comparator<Answer> MOST_RECENT_FIRST =
+            Comparator.comparing(Answer::getCreatedAt).reversed()
+                    .thenComparing(Answer::getAnswerId);
+    
     private Map<String, Answer> answersMap;
-    private Map<String, List<String>> questionToAnswersMap;
+    // Per question: its answers in creation order, unlinked in constant time on delete
+    private Map<String, ChildList<Answer>> questionToAnswersMap;
+    
+    // Per author: their answers, most recent first
+    private Map<String, NavigableSet<Answer>> authorIndex;
+    
+    // Per-question striped locks guarding the question -> answers lists
+    private StripedLocks locks;
+    
+    // Immutable copy of all answers, republished after changes
+    private final CollectionSnapshot<Answer> snapshot;
+    
+    // Per question: normalized content hash -> answer IDs, and the hash each answer was
+    // indexed under (answers are edited in place, so the old hash cannot be recomputed)
+    private Map<String, Map<Long, Set<String>>> contentIndex;
+    private Map<String, Long> contentHashes;
+    
+    // Optional disk-backed storage for answer contents (null while contents stay in memory)
+    private volatile BodyStore bodyStore;
     
     public Answers() {
-        this.answersMap = new HashMap<>();
-        this.questionToAnswersMap = new HashMap<>();
+        this.answersMap = new ConcurrentHashMap<>();
+        this.questionToAnswersMap = new ConcurrentHashMap<>();
+        this.authorIndex = new ConcurrentHashMap<>();
+        this.locks = new StripedLocks(LOCK_STRIPES);
+        this.snapshot = new CollectionSnapshot<>(answersMap.values(), locks);
+        this.contentIndex = new ConcurrentHashMap<>();
+        this.contentHashes = new ConcurrentHashMap<>();
     }
     
     // CREATE
     public boolean addAnswer(Answer answer) {
-        if (answer == null || answer.getAnswerId() == null) {
-            return false;
-        }
-        if (answersMap.containsKey(answer.getAnswerId())) {
+        if (answer == null || answer.getAnswerId() == null || answer.getQuestionId() == null) {
             return false;
         }
         
-        answersMap.put(answer.getAnswerId(), answer);
-        
         String questionId = answer.getQuestionId();
-        questionToAnswersMap.putIfAbsent(questionId, new ArrayList<>());
-        questionToAnswersMap.get(questionId).add(answer.getAnswerId());
-        
-        return true;
+        ReentrantLock lock = locks.lockFor(questionId);
+        lock.lock();
+        try {
+            if (answersMap.putIfAbsent(answer.getAnswerId(), answer) != null) {
+                return false;
+            }
+            
+            moveContent(answer);
+            
+            // Readers get immutable views of the list, so they never lock
+            questionToAnswersMap.computeIfAbsent(questionId, id -> newAnswerList()).add(answer, OLDEST_FIRST);
+            addToAuthorIndex(answer);
+            addToContentIndex(answer);
+            snapshot.invalidate();
+            return true;
+        } finally {
+            lock.unlock();
+        }
     }
     
     // READ
     public Answer getAnswerById(String answerId) {
-        return answersMap.get(answerId);
+        return answerId == null ? null : answersMap.get(answerId);
     }
     
+    // Immutable snapshot shared by every caller until the next change (copy it before sorting)
     public List<Answer> getAllAnswers() {
-        return new ArrayList<>(answersMap.values());
+        return snapshot.get();
+    }
+    
+    // Changes whenever an answer is added, replaced or deleted
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+    
+    // Stripes are keyed by question ID; QuestionThreads holds them across collections
+    StripedLocks getLocks() {
+        return locks;
     }
     
     // UPDATE
@@ -49,120 +106,148 @@ public class Answers {
         if (answer == null || answer.getAnswerId() == null) {
             return false;
         }
-        if (!answersMap.containsKey(answer.getAnswerId())) {
-            return false;
+        
+        ReentrantLock lock = locks.lockFor(answer.getQuestionId());
+        lock.lock();
+        try {
+            Answer previous = answersMap.replace(answer.getAnswerId(), answer);
+            if (previous == null) {
+                return false;
+            }
+            moveContent(answer);
+            
+            // A new timestamp moves the answer within its question's list
+            ChildList<Answer> list = questionToAnswersMap.get(answer.getQuestionId());
+            if (list != null) {
+                if (answer.getCreatedAt().equals(previous.getCreatedAt())) {
+                    list.replace(answer);
+                } else {
+                    list.remove(answer.getAnswerId());
+                    list.add(answer, OLDEST_FIRST);
+                }
+            }
+            if (previous != answer) {
+                removeFromAuthorIndex(previous);
+                addToAuthorIndex(answer);
+            }
+            
+            // Content may have been edited, so re-index it
+            removeFromContentIndex(answer.getQuestionId(), answer.getAnswerId());
+            addToContentIndex(answer);
+            snapshot.invalidate();
+            return true;
+        } finally {
+            lock.unlock();
         }
-        answersMap.put(answer.getAnswerId(), answer);
-        return true;
     }
     
     // DELETE
     public boolean deleteAnswer(String answerId) {
-        if (answerId == null || !answersMap.containsKey(answerId)) {
+        if (answerId == null) {
             return false;
         }
         
         Answer answer = answersMap.get(answerId);
+        if (answer == null) {
+            return false;
+        }
         String questionId = answer.getQuestionId();
         
-        answersMap.remove(answerId);
-        
-        if (questionToAnswersMap.containsKey(questionId)) {
-            questionToAnswersMap.get(questionId).remove(answerId);
+        ReentrantLock lock = locks.lockFor(questionId);
+        lock.lock();
+        try {
+            if (answersMap.remove(answerId) == null) {
+                return false;
+            }
             
-            if (questionToAnswersMap.get(questionId).isEmpty()) {
-                questionToAnswersMap.remove(questionId);
+            removeFromContentIndex(questionId, answerId);
+            removeFromAuthorIndex(answer);
+            snapshot.invalidate();
+            
+            ChildList<Answer> list = questionToAnswersMap.get(questionId);
+            if (list != null) {
+                list.remove(answerId);
+                if (list.size() == 0) {
+                    questionToAnswersMap.remove(questionId);
+                }
             }
+            
+            return true;
+        } finally {
+            lock.unlock();
         }
-        
-        return true;
     }
     
     // Question-specific operations
+    
+    // Read-only view in creation order, kept sorted as answers are added (copy it before changing it)
     public List<Answer> getAnswersForQuestion(String questionId) {
-        if (questionId == null || !questionToAnswersMap.containsKey(questionId)) {
-            return new ArrayList<>();
-        }
-        
-        List<String> answerIds = questionToAnswersMap.get(questionId);
-        List<Answer> answers = new ArrayList<>();
-        
-        for (String answerId : answerIds) {
-            Answer answer = answersMap.get(answerId);
-            if (answer != null) {
-                answers.add(answer);
-            }
-        }
-        
-        answers.sort(Comparator.comparing(Answer::getCreatedAt));
-        return answers;
+        ChildList<Answer> list = questionId == null ? null : questionToAnswersMap.get(questionId);
+        return list == null ? Collections.emptyList() : list.view();
     }
     
+    // Read-only view with the resolved answer moved to the front, without sorting or copying
     public List<Answer> getAnswersForQuestionWithResolvedFirst(String questionId, String resolvedAnswerId) {
-        List<Answer> answers = getAnswersForQuestion(questionId);
-        
-        if (resolvedAnswerId == null || answers.isEmpty()) {
-            return answers;
-        }
-        
-        Answer resolvedAnswer = null;
-        List<Answer> otherAnswers = new ArrayList<>();
-        
-        for (Answer answer : answers) {
-            if (answer.getAnswerId().equals(resolvedAnswerId)) {
-                resolvedAnswer = answer;
-            } else {
-                otherAnswers.add(answer);
-            }
-        }
-        
-        List<Answer> result = new ArrayList<>();
-        if (resolvedAnswer != null) {
-            result.add(resolvedAnswer);
-        }
-        result.addAll(otherAnswers);
-        
-        return result;
+        ChildList<Answer> list = questionId == null ? null : questionToAnswersMap.get(questionId);
+        return list == null ? Collections.emptyList() : list.viewWithFirst(resolvedAnswerId);
     }
     
     public int getAnswerCountForQuestion(String questionId) {
-        if (questionId == null || !questionToAnswersMap.containsKey(questionId)) {
-            return 0;
-        }
-        return questionToAnswersMap.get(questionId).size();
+        ChildList<Answer> list = questionId == null ? null : questionToAnswersMap.get(questionId);
+        return list == null ? 0 : list.size();
     }
     
+    // Most recent first, read from the author index in time proportional to the author's answers
     public List<Answer> getAnswersByAuthor(String username) {
         if (username == null || username.trim().isEmpty()) {
             return new ArrayList<>();
         }
-        return answersMap.values().stream()
-                .filter(a -> a.getAuthor().equals(username))
-                .sorted((a1, a2) -> a2.getCreatedAt().compareTo(a1.getCreatedAt()))
-                .collect(Collectors.toList());
+        return new ArrayList<>(authorIndex.getOrDefault(username, Collections.emptyNavigableSet()));
+    }
+    
+    public int getAnswerCountByAuthor(String username) {
+        NavigableSet<Answer> byAuthor = username == null ? null : authorIndex.get(username);
+        return byAuthor == null ? 0 : byAuthor.size();
     }
     
     public boolean hasAnswers(String questionId) {
-        return questionId != null && 
-               questionToAnswersMap.containsKey(questionId) && 
-               !questionToAnswersMap.get(questionId).isEmpty();
+        return getAnswerCountForQuestion(questionId) > 0;
     }
     
     public int deleteAllAnswersForQuestion(String questionId) {
-        if (questionId == null || !questionToAnswersMap.containsKey(questionId)) {
-            return 0;
+        return removeAllAnswersForQuestion(questionId).size();
+    }
+    
+    // Deletes a question's answers and returns them, so callers can cascade to their replies
+    List<Answer> removeAllAnswersForQuestion(String questionId) {
+        if (questionId == null) {
+            return Collections.emptyList();
         }
         
-        List<String> answerIds = new ArrayList<>(questionToAnswersMap.get(questionId));
-        int deletedCount = 0;
-        
-        for (String answerId : answerIds) {
-            if (deleteAnswer(answerId)) {
-                deletedCount++;
+        ReentrantLock lock = locks.lockFor(questionId);
+        lock.lock();
+        try {
+            // The whole list is dropped at once; only the per-answer maps are visited
+            ChildList<Answer> list = questionToAnswersMap.remove(questionId);
+            contentIndex.remove(questionId);
+            if (list == null) {
+                return Collections.emptyList();
+            }
+            
+            List<Answer> deleted = new ArrayList<>(list.size());
+            for (Answer answer : list.view()) {
+                contentHashes.remove(answer.getAnswerId());
+                removeFromAuthorIndex(answer);
+                if (answersMap.remove(answer.getAnswerId()) != null) {
+                    deleted.add(answer);
+                }
             }
+            snapshot.invalidate();
+            
+            return deleted;
+        } finally {
+            lock.unlock();
         }
-        
-        return deletedCount;
     }
     
     public int getAnswerCount() {
@@ -170,12 +255,135 @@ public class Answers {
     }
     
     public boolean answerExists(String answerId) {
-        return answersMap.containsKey(answerId);
+        return answerId != null && answersMap.containsKey(answerId);
     }
     
     public void clearAllAnswers() {
-        answersMap.clear();
-        questionToAnswersMap.clear();
+        locks.lockAll();
+        try {
+            answersMap.clear();
+            questionToAnswersMap.clear();
+            authorIndex.clear();
+            contentIndex.clear();
+            contentHashes.clear();
+            snapshot.invalidate();
+        } finally {
+            locks.unlockAll();
+        }
+    }
+    
+    // Duplicate detection: same content as another answer to the question, ignoring
+    // case and extra whitespace. Only one hash bucket is checked, not every answer.
+    public boolean isDuplicate(String questionId, String content) {
+        return isDuplicate(questionId, content, null);
+    }
+    
+    // excludeAnswerId lets an answer being edited not count as a duplicate of itself
+    public boolean isDuplicate(String questionId, String content, String excludeAnswerId) {
+        Map<Long, Set<String>> byHash = questionId == null ? null : contentIndex.get(questionId);
+        Set<String> candidates = byHash == null ? null : byHash.get(ContentHash.of(content));
+        if (candidates == null) {
+            return false;
+        }
+        
+        // Confirm the match, since different texts can share a hash
+        for (String answerId : candidates) {
+            Answer answer = answersMap.get(answerId);
+            if (answer != null && !answerId.equals(excludeAnswerId) &&
+                ContentHash.sameContent(answer.getContent(), content)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Keeps answer contents in a disk-backed body store, loaded on demand by getContent,
+    // or (with null) brings them back into memory. Existing answers are moved too.
+    public void setBodyStore(BodyStore bodies) {
+        locks.lockAll();
+        try {
+            bodyStore = bodies;
+            for (Answer answer : answersMap.values()) {
+                if (bodies == null) {
+                    answer.keepContentInMemory();
+                } else {
+                    answer.moveContentTo(bodies);
+                }
+            }
+        } finally {
+            locks.unlockAll();
+        }
+    }
+    
+    public BodyStore getBodyStore() {
+        return bodyStore;
+    }
+    
+    // Called with the question's stripe lock held
+    private void moveContent(Answer answer) {
+        BodyStore bodies = bodyStore;
+        if (bodies != null) {
+            answer.moveContentTo(bodies);
+        }
+    }
+    
+    // Called with the question's stripe lock held. compute() is atomic per author, so a
+    // writer on another stripe removing the author's last answer cannot drop this set.
+    private void addToAuthorIndex(Answer answer) {
+        if (answer.getAuthor() == null) {
+            return;
+        }
+        authorIndex.compute(answer.getAuthor(), (author, byAuthor) -> {
+            if (byAuthor == null) {
+                byAuthor = new ConcurrentSkipListSet<>(MOST_RECENT_FIRST);
+            }
+            byAuthor.add(answer);
+            return byAuthor;
+        });
+    }
+    
+    // Called with the question's stripe lock held
+    private void removeFromAuthorIndex(Answer answer) {
+        if (answer.getAuthor() == null) {
+            return;
+        }
+        authorIndex.computeIfPresent(answer.getAuthor(), (author, byAuthor) -> {
+            byAuthor.remove(answer);
+            return byAuthor.isEmpty() ? null : byAuthor;
+        });
+    }
+    
+    // Called with the question's stripe lock held
+    private void addToContentIndex(Answer answer) {
+        long hash = ContentHash.of(answer.getContent());
+        contentHashes.put(answer.getAnswerId(), hash);
+        contentIndex.computeIfAbsent(answer.getQuestionId(), id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(hash, h -> ConcurrentHashMap.newKeySet())
+                .add(answer.getAnswerId());
+    }
+    
+    // Called with the question's stripe lock held
+    private void removeFromContentIndex(String questionId, String answerId) {
+        Long hash = contentHashes.remove(answerId);
+        Map<Long, Set<String>> byHash = contentIndex.get(questionId);
+        if (hash == null || byHash == null) {
+            return;
+        }
+        Set<String> answerIds = byHash.get(hash);
+        if (answerIds != null) {
+            answerIds.remove(answerId);
+            if (answerIds.isEmpty()) {
+                byHash.remove(hash);
+            }
+        }
+        if (byHash.isEmpty()) {
+            contentIndex.remove(questionId);
+        }
+    }
+    
+    // Views of the list track the resolved answer's position
+    private static ChildList<Answer> newAnswerList() {
+        return new ChildList<>(Answer::getAnswerId, Answer::isMarkedAsResolved);
     }
     
     @Override
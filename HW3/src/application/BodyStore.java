@@ -0,0 +1,215 @@
+package application;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Our BodyStore class keeps question bodies and answer contents out of the heap.
+ * Texts are appended to a memory-mapped file and read back on demand, with a small
+ * LRU cache of recently read texts so reopening a thread does not touch the file.
+ *
+ * The file is append-only: editing a post appends the new text and the old record is
+ * simply no longer referenced. The file is mapped in fixed-size segments, so it can
+ * grow without remapping what was already written.
+ */
+public class BodyStore implements AutoCloseable {
+
+    // Size of each mapped segment of the file; a record never spans two segments
+    private static final int SEGMENT_SIZE = 1 << 24;
+
+    // Default number of texts kept in the cache
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments;
+
+    // Position in the file where the next record is written
+    private long end;
+
+    // Record position -> text, least recently used first
+    private final Map<Long, String> cache;
+    private long cacheHits;
+    private long cacheMisses;
+
+    /**
+     * Constructor opens (or creates) a store in the given file, starting empty.
+     *
+     * file The file to append texts to
+     * cacheSize Number of recently used texts to keep in memory
+     */
+    public BodyStore(Path file, int cacheSize) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.segments = new ArrayList<>();
+        this.end = 0;
+        int capacity = Math.max(1, cacheSize);
+        this.cache = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Creates a store in a temporary file that is deleted when the program exits.
+     *
+     * return A new, empty store with the default cache size
+     */
+    public static BodyStore createTemporary() throws IOException {
+        Path file = Files.createTempFile("qa-bodies", ".dat");
+        file.toFile().deleteOnExit();
+        return new BodyStore(file, DEFAULT_CACHE_SIZE);
+    }
+
+    //Reading and Writing
+
+    /**
+     * Appends a text to the file.
+     *
+     * text The text to store (not null)
+     * return A reference for loading the text back
+     */
+    public synchronized Ref append(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int recordLength = Integer.BYTES + bytes.length;
+        if (recordLength > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Text too long to store: " + text.length() + " characters");
+        }
+
+        // Start a new segment if the record does not fit in the current one
+        if (end % SEGMENT_SIZE + recordLength > SEGMENT_SIZE) {
+            end = (end / SEGMENT_SIZE + 1) * SEGMENT_SIZE;
+        }
+        long position = end;
+        ByteBuffer segment = segment((int) (position / SEGMENT_SIZE)).duplicate();
+        segment.position((int) (position % SEGMENT_SIZE));
+        segment.putInt(bytes.length);
+        segment.put(bytes);
+        end = position + recordLength;
+
+        cache.put(position, text);
+        return new Ref(this, position);
+    }
+
+    /**
+     * Loads a stored text, from the cache when it was used recently.
+     *
+     * position Position of the record in the file
+     * return The text
+     */
+    String load(long position) {
+        synchronized (this) {
+            String text = cache.get(position);
+            if (text != null) {
+                cacheHits++;
+                return text;
+            }
+            cacheMisses++;
+        }
+
+        // Read outside the lock; written records never change
+        ByteBuffer segment = segment((int) (position / SEGMENT_SIZE)).duplicate();
+        segment.position((int) (position % SEGMENT_SIZE));
+        byte[] bytes = new byte[segment.getInt()];
+        segment.get(bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+
+        synchronized (this) {
+            cache.put(position, text);
+        }
+        return text;
+    }
+
+    //Statistics
+
+    /**
+     * Gets the number of bytes appended so far (including segment padding).
+     *
+     * return Size of the used part of the file
+     */
+    public synchronized long getSize() {
+        return end;
+    }
+
+    public synchronized int getCachedCount() {
+        return cache.size();
+    }
+
+    public synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    public synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Closes the file. Texts can no longer be loaded unless they are cached.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //Helper Methods
+
+    // Maps segments up to the given index; mapping past the end of the file grows it
+    private MappedByteBuffer segment(int index) {
+        synchronized (segments) {
+            try {
+                while (segments.size() <= index) {
+                    long offset = (long) segments.size() * SEGMENT_SIZE;
+                    segments.add(channel.map(FileChannel.MapMode.READ_WRITE, offset, SEGMENT_SIZE));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map " + file, e);
+            }
+            return segments.get(index);
+        }
+    }
+
+    /**
+     * Where one text is stored. Immutable, so a post can switch between an in-memory
+     * text and a stored one by replacing a single reference.
+     */
+    public static final class Ref {
+        private final BodyStore store;
+        private final long position;
+
+        private Ref(BodyStore store, long position) {
+            this.store = store;
+            this.position = position;
+        }
+
+        public BodyStore getStore() {
+            return store;
+        }
+
+        /**
+         * Loads the referenced text.
+         *
+         * return The text
+         */
+        public String load() {
+            return store.load(position);
+        }
+    }
+}
\ No newline at end of file
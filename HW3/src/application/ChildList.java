@@ -0,0 +1,303 @@
+package application;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Our ChildList class holds the children of one parent, such as a question's answers or an
+ * answer's replies. Children sit in a slot array next to an ID -> slot map, so adding a
+ * child fills the next slot and removing one leaves a tombstone, both in constant time
+ * instead of scanning the list for the ID. Once tombstones outnumber the live children the
+ * slots are compacted, which keeps the array proportional to the list.
+ *
+ * Readers get an immutable view in slot order. Like CollectionSnapshot, the first reader
+ * after a change builds it and later readers share it until the next change, so a burst of
+ * deletes costs one copy instead of one per delete.
+ */
+public class ChildList<T> {
+
+    private static final int INITIAL_SLOTS = 4;
+
+    private final Function<T, String> idOf;
+    // Children whose position the views track (e.g. the resolved answer), or null
+    private final Predicate<T> marked;
+
+    // Slots [0, end) hold live children and tombstones (null)
+    private Object[] slots;
+    private int end;
+    private int live;
+    private final Map<String, Integer> slotOf;
+
+    // Built by the first reader after a change, null until then
+    private volatile Snapshot<T> snapshot;
+
+    /**
+     * Constructor creates an empty list.
+     *
+     * idOf Gets a child's ID
+     * marked Picks the child whose position views keep track of, or null for none
+     */
+    public ChildList(Function<T, String> idOf, Predicate<T> marked) {
+        this.idOf = idOf;
+        this.marked = marked;
+        this.slots = new Object[INITIAL_SLOTS];
+        this.slotOf = new HashMap<>();
+    }
+
+    //Changes
+
+    /**
+     * Appends a child.
+     *
+     * child The child to add
+     * return true if added, false if a child with the same ID is already in the list
+     */
+    public synchronized boolean add(T child) {
+        String id = idOf.apply(child);
+        if (slotOf.containsKey(id)) {
+            return false;
+        }
+        makeRoom();
+        slots[end] = child;
+        slotOf.put(id, end);
+        end++;
+        live++;
+        snapshot = null;
+        return true;
+    }
+
+    /**
+     * Adds a child in order. Children usually arrive last in order, which is an append;
+     * anything else moves the later children up one slot.
+     *
+     * child The child to add
+     * order The list's order; ties keep insertion order
+     * return true if added, false if a child with the same ID is already in the list
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized boolean add(T child, Comparator<? super T> order) {
+        // The last slot is never a tombstone
+        if (end == 0 || order.compare((T) slots[end - 1], child) <= 0) {
+            return add(child);
+        }
+        if (slotOf.containsKey(idOf.apply(child))) {
+            return false;
+        }
+
+        compact();
+        int at = end;
+        while (at > 0 && order.compare((T) slots[at - 1], child) > 0) {
+            at--;
+        }
+        makeRoom();
+        System.arraycopy(slots, at, slots, at + 1, end - at);
+        slots[at] = child;
+        end++;
+        live++;
+        for (int i = at; i < end; i++) {
+            slotOf.put(idOf.apply((T) slots[i]), i);
+        }
+        snapshot = null;
+        return true;
+    }
+
+    /**
+     * Puts a new version of a child in the slot of the old one.
+     *
+     * child The new version (same ID)
+     * return true if replaced, false if the list has no child with that ID
+     */
+    public synchronized boolean replace(T child) {
+        Integer slot = slotOf.get(idOf.apply(child));
+        if (slot == null) {
+            return false;
+        }
+        slots[slot] = child;
+        snapshot = null;
+        return true;
+    }
+
+    /**
+     * Unlinks a child in constant time, leaving a tombstone in its slot.
+     *
+     * id ID of the child to remove
+     * return The removed child, or null if the list has no child with that ID
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T remove(String id) {
+        Integer slot = slotOf.remove(id);
+        if (slot == null) {
+            return null;
+        }
+        T child = (T) slots[slot];
+        slots[slot] = null;
+        live--;
+        while (end > 0 && slots[end - 1] == null) {
+            end--;
+        }
+        if (end - live > live) {
+            compact();
+        }
+        snapshot = null;
+        return child;
+    }
+
+    //Reads
+
+    public synchronized int size() {
+        return live;
+    }
+
+    public synchronized boolean contains(String id) {
+        return slotOf.containsKey(id);
+    }
+
+    /**
+     * Gets the children in slot order.
+     *
+     * return Read-only view shared until the next change
+     */
+    public List<T> view() {
+        return snapshot().children;
+    }
+
+    /**
+     * Gets the children with one of them moved to the front, without copying them again.
+     * The position of the marked child is already known; any other ID is looked up.
+     *
+     * firstId ID of the child to show first, or null
+     * return Read-only view; same order as view() if the list has no child with that ID
+     */
+    public List<T> viewWithFirst(String firstId) {
+        Snapshot<T> current = snapshot();
+        int first = firstId == null ? -1 : current.indexOf(firstId, idOf);
+        return first <= 0 ? current.children : new FirstMovedView<>(current.array, first);
+    }
+
+    //Helper Methods
+
+    private Snapshot<T> snapshot() {
+        Snapshot<T> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            // Another reader may have built it while this one waited
+            if (snapshot == null) {
+                snapshot = buildSnapshot();
+            }
+            return snapshot;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Snapshot<T> buildSnapshot() {
+        Object[] array = new Object[live];
+        int count = 0;
+        int markedIndex = -1;
+        for (int i = 0; i < end; i++) {
+            if (slots[i] != null) {
+                if (markedIndex < 0 && marked != null && marked.test((T) slots[i])) {
+                    markedIndex = count;
+                }
+                array[count++] = slots[i];
+            }
+        }
+        return new Snapshot<>(array, markedIndex);
+    }
+
+    // Moves live children down over the tombstones
+    @SuppressWarnings("unchecked")
+    private void compact() {
+        if (end == live) {
+            return;
+        }
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (slots[i] != null) {
+                if (count != i) {
+                    slots[count] = slots[i];
+                    slotOf.put(idOf.apply((T) slots[count]), count);
+                }
+                count++;
+            }
+        }
+        Arrays.fill(slots, count, end, null);
+        end = count;
+    }
+
+    // Frees a slot at the end: compacts if a quarter of the slots are tombstones, else grows
+    private void makeRoom() {
+        if (end < slots.length) {
+            return;
+        }
+        if (end - live >= slots.length / 4) {
+            compact();
+        }
+        if (end == slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(INITIAL_SLOTS, slots.length * 2));
+        }
+    }
+
+    // One published view: the live children in order and where the marked one sits
+    private static final class Snapshot<T> {
+        final Object[] array;
+        final List<T> children;
+        final int markedIndex;
+
+        @SuppressWarnings("unchecked")
+        Snapshot(Object[] array, int markedIndex) {
+            this.array = array;
+            this.children = Collections.unmodifiableList(Arrays.asList((T[]) array));
+            this.markedIndex = markedIndex;
+        }
+
+        @SuppressWarnings("unchecked")
+        int indexOf(String id, Function<T, String> idOf) {
+            if (markedIndex >= 0 && id.equals(idOf.apply((T) array[markedIndex]))) {
+                return markedIndex;
+            }
+            for (int i = 0; i < array.length; i++) {
+                if (id.equals(idOf.apply((T) array[i]))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // Read-only view of an array with one element moved to the front
+    private static final class FirstMovedView<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[] array;
+        private final int first;
+
+        FirstMovedView(Object[] array, int first) {
+            this.array = array;
+            this.first = first;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            Objects.checkIndex(index, array.length);
+            if (index == 0) {
+                return (T) array[first];
+            }
+            return (T) (index <= first ? array[index - 1] : array[index]);
+        }
+
+        @Override
+        public int size() {
+            return array.length;
+        }
+    }
+}
\ No newline at end of file
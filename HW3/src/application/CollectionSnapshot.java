@@ -0,0 +1,91 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Our CollectionSnapshot class publishes immutable point-in-time copies of a
+ * collection's contents. Writers bump a version number after each change; the first
+ * reader after a change takes one copy while every writer is locked out, so the copy
+ * never mixes half-applied changes. Later readers get the same copy until the next
+ * change, so repeated reads cost nothing and never copy again.
+ */
+public class CollectionSnapshot<T> {
+
+    private final Collection<T> source;
+    private final StripedLocks locks;
+
+    // Incremented by writers after every change
+    private final AtomicLong version;
+
+    // Last published copy and the version it was taken at
+    private volatile Published<T> published;
+
+    /**
+     * Constructor for snapshots of a live collection guarded by striped locks.
+     *
+     * source The live values (e.g. a concurrent map's values view)
+     * locks The locks every writer of the source holds while changing it
+     */
+    public CollectionSnapshot(Collection<T> source, StripedLocks locks) {
+        this.source = source;
+        this.locks = locks;
+        this.version = new AtomicLong();
+    }
+
+    /**
+     * Records that the source changed. Writers call this while still holding their lock,
+     * so a snapshot taken under lockAll always sees the change and the new version together.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Gets the current version; it changes every time the source changes.
+     *
+     * return The version number
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Gets an immutable copy of the source as of the latest change.
+     *
+     * return Unmodifiable list of the values (copy it before sorting)
+     */
+    public List<T> get() {
+        Published<T> current = published;
+        if (current != null && current.version == version.get()) {
+            return current.values;
+        }
+
+        locks.lockAll();
+        try {
+            // Another reader may have published while this one waited
+            long latest = version.get();
+            current = published;
+            if (current == null || current.version != latest) {
+                current = new Published<>(latest, Collections.unmodifiableList(new ArrayList<>(source)));
+                published = current;
+            }
+            return current.values;
+        } finally {
+            locks.unlockAll();
+        }
+    }
+
+    private static final class Published<T> {
+        final long version;
+        final List<T> values;
+
+        Published(long version, List<T> values) {
+            this.version = version;
+            this.values = values;
+        }
+    }
+}
\ No newline at end of file
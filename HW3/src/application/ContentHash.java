@@ -0,0 +1,69 @@
+package application;
+
+import java.util.Locale;
+
+/**
+ * Our ContentHash class reduces posted text to a normalized form and a 64-bit hash.
+ * Two posts are duplicates when their normalized forms are equal: case is ignored
+ * and runs of whitespace count as a single space, so "How do I  use Lists?" and
+ * "how do i use lists?" are the same post.
+ * The hash lets duplicate checks look up a single bucket instead of comparing
+ * against every post.
+ */
+public class ContentHash {
+
+    // 64-bit FNV-1a parameters
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private ContentHash() {
+    }
+
+    /**
+     * Normalizes text for duplicate comparison: lowercased, trimmed and with
+     * whitespace runs collapsed to one space.
+     *
+     * text The text to normalize (may be null)
+     * return The normalized text ("" for null)
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Hashes the normalized form of one or more fields (e.g. a title and a body).
+     * Fields are separated so ("ab", "c") and ("a", "bc") usually hash differently;
+     * callers confirm a hash match with sameContent, so collisions are harmless.
+     *
+     * fields The texts to hash
+     * return 64-bit hash of the normalized fields
+     */
+    public static long of(String... fields) {
+        long hash = OFFSET_BASIS;
+        for (String field : fields) {
+            String normalized = normalize(field);
+            for (int i = 0; i < normalized.length(); i++) {
+                char c = normalized.charAt(i);
+                hash = (hash ^ (c & 0xff)) * PRIME;
+                hash = (hash ^ (c >>> 8)) * PRIME;
+            }
+            // Mark the end of the field
+            hash = (hash ^ 0x1f) * PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Checks whether two texts are equal after normalization.
+     *
+     * a First text
+     * b Second text
+     * return true if the texts count as duplicates
+     */
+    public static boolean sameContent(String a, String b) {
+        return normalize(a).equals(normalize(b));
+    }
+}
\ No newline at end of file
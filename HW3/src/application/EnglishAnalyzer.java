@@ -0,0 +1,162 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Our EnglishAnalyzer class turns English text into search terms in four steps:
+ * split into words (runs of letters and digits, so punctuation never sticks to a word),
+ * lowercase, drop stopwords ("the", "is", "how"...) and strip common suffixes with a
+ * light stemmer, so "connecting", "connected" and "connects" all become "connect".
+ *
+ * Stopwords match almost every question, so dropping them keeps queries short and
+ * their results small.
+ */
+public class EnglishAnalyzer implements Analyzer {
+
+    /**
+     * Words too common to be worth indexing.
+     */
+    public static final Set<String> STOPWORDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "been", "but", "by", "can", "do", "does", "for",
+            "from", "had", "has", "have", "how", "i", "if", "in", "into", "is", "it", "its", "me", "my",
+            "no", "not", "of", "on", "or", "so", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "we", "were", "what", "when", "which", "will", "with", "you")));
+
+    // Words this short are never stemmed
+    private static final int MIN_STEM_LENGTH = 3;
+
+    @Override
+    public List<Token> analyze(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int position = 0;
+        int i = 0;
+        while (i < text.length()) {
+            while (i < text.length() && !isWordChar(text, i)) {
+                i++;
+            }
+            int start = i;
+            while (i < text.length() && isWordChar(text, i)) {
+                i++;
+            }
+            if (start == i) {
+                break;
+            }
+
+            String word = normalize(text.substring(start, i));
+            if (!STOPWORDS.contains(word)) {
+                tokens.add(new Token(stem(word), position, start, i));
+            }
+            // Stopwords still take a position, so phrases do not join across them
+            position++;
+        }
+        return tokens;
+    }
+
+    /**
+     * Strips common English suffixes: plurals ("queries" -> "query", "classes" -> "class",
+     * "loops" -> "loop"), then "-ing" and "-ed" ("connecting" -> "connect",
+     * "running" -> "run", "created" -> "create"). Only rewrites a word when a
+     * reasonable stem (with a vowel) is left.
+     *
+     * word A lowercased word
+     * return Its stem
+     */
+    public static String stem(String word) {
+        if (word.length() <= MIN_STEM_LENGTH || !isLetters(word)) {
+            return word;
+        }
+
+        // Plurals
+        if (word.endsWith("ies") && word.length() > 4) {
+            word = word.substring(0, word.length() - 3) + "y";
+        } else if (word.endsWith("sses")) {
+            word = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("xes") || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("zes")) {
+            word = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            word = word.substring(0, word.length() - 1);
+        }
+
+        // Verb endings
+        if (word.endsWith("eed")) {
+            return word;
+        }
+        for (String suffix : new String[] {"ing", "ed"}) {
+            if (!word.endsWith(suffix)) {
+                continue;
+            }
+            String stem = word.substring(0, word.length() - suffix.length());
+            if (stem.length() < MIN_STEM_LENGTH || !hasVowel(stem)) {
+                return word;
+            }
+            if (stem.endsWith("at") || stem.endsWith("bl") || stem.endsWith("iz")) {
+                // "creat" -> "create", "enabl" -> "enable"
+                return stem + "e";
+            }
+            char last = stem.charAt(stem.length() - 1);
+            if (stem.length() > MIN_STEM_LENGTH && last == stem.charAt(stem.length() - 2) && !isVowel(last) &&
+                last != 'l' && last != 's' && last != 'z') {
+                // "runn" -> "run"
+                return stem.substring(0, stem.length() - 1);
+            }
+            return stem;
+        }
+        return word;
+    }
+
+    //Helper Methods
+
+    // Letters and digits, plus an apostrophe between two letters ("don't", "user's")
+    private static boolean isWordChar(String text, int i) {
+        char c = text.charAt(i);
+        if (Character.isLetterOrDigit(c)) {
+            return true;
+        }
+        return (c == '\'' || c == '’') && i > 0 && i + 1 < text.length() &&
+               Character.isLetter(text.charAt(i - 1)) && Character.isLetter(text.charAt(i + 1));
+    }
+
+    // Lowercases a word and drops possessives and apostrophes ("User's" -> "user")
+    private static String normalize(String word) {
+        String lower = word.toLowerCase().replace('’', '\'');
+        if (lower.endsWith("'s")) {
+            lower = lower.substring(0, lower.length() - 2);
+        }
+        return lower.indexOf('\'') < 0 ? lower : lower.replace("'", "");
+    }
+
+    private static boolean isLetters(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasVowel(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (isVowel(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u' || c == 'y';
+    }
+
+    @Override
+    public String toString() {
+        return "EnglishAnalyzer";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package application;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Our FacetCounts class holds the number of questions in each filter
+ * (total, resolved/unresolved, answered/unanswered) for a collection or one author.
+ * Counts are adjusted as questions are added, removed or change status, so reading
+ * them takes constant time instead of building the filtered lists.
+ */
+public class FacetCounts {
+
+    private final AtomicInteger total;
+    private final AtomicInteger resolved;
+    private final AtomicInteger answered;
+
+    /**
+     * Constructor initializes all counts to zero.
+     */
+    public FacetCounts() {
+        this(0, 0, 0);
+    }
+
+    /**
+     * Constructor for a fixed set of counts (e.g. a snapshot or a recount).
+     *
+     * total Number of questions
+     * resolved Number of resolved questions
+     * answered Number of questions with at least one answer
+     */
+    public FacetCounts(int total, int resolved, int answered) {
+        this.total = new AtomicInteger(total);
+        this.resolved = new AtomicInteger(resolved);
+        this.answered = new AtomicInteger(answered);
+    }
+
+    /**
+     * Adds (delta = 1) or removes (delta = -1) one question with the given status.
+     *
+     * isResolved Whether the question is resolved
+     * isAnswered Whether the question has answers
+     * delta +1 to count the question, -1 to uncount it
+     */
+    void adjust(boolean isResolved, boolean isAnswered, int delta) {
+        total.addAndGet(delta);
+        if (isResolved) {
+            resolved.addAndGet(delta);
+        }
+        if (isAnswered) {
+            answered.addAndGet(delta);
+        }
+    }
+
+    /**
+     * Adds the counts of a group of questions (e.g. from a recount).
+     *
+     * total Number of questions
+     * resolved Number of resolved questions
+     * answered Number of questions with at least one answer
+     */
+    void add(int total, int resolved, int answered) {
+        this.total.addAndGet(total);
+        this.resolved.addAndGet(resolved);
+        this.answered.addAndGet(answered);
+    }
+
+    /**
+     * Sets every count back to zero.
+     */
+    void reset() {
+        total.set(0);
+        resolved.set(0);
+        answered.set(0);
+    }
+
+    public int getTotal() {
+        return total.get();
+    }
+
+    public int getResolved() {
+        return resolved.get();
+    }
+
+    public int getUnresolved() {
+        return total.get() - resolved.get();
+    }
+
+    public int getAnswered() {
+        return answered.get();
+    }
+
+    public int getUnanswered() {
+        return total.get() - answered.get();
+    }
+
+    /**
+     * Copies the current counts.
+     * While other threads are posting, the copy may mix counts from just before and
+     * just after a change.
+     *
+     * return A new FacetCounts with the same values
+     */
+    public FacetCounts snapshot() {
+        return new FacetCounts(getTotal(), getResolved(), getAnswered());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof FacetCounts)) {
+            return false;
+        }
+        FacetCounts counts = (FacetCounts) other;
+        return getTotal() == counts.getTotal() &&
+               getResolved() == counts.getResolved() &&
+               getAnswered() == counts.getAnswered();
+    }
+
+    @Override
+    public int hashCode() {
+        return (getTotal() * 31 + getResolved()) * 31 + getAnswered();
+    }
+
+    @Override
+    public String toString() {
+        return "FacetCounts{" +
+                "total=" + getTotal() +
+                ", resolved=" + getResolved() +
+                ", unresolved=" + getUnresolved() +
+                ", answered=" + getAnswered() +
+                ", unanswered=" + getUnanswered() +
+                '}';
+    }
+}
\ No newline at end of file
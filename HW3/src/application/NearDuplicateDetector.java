@@ -0,0 +1,233 @@
+package application;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Our NearDuplicateDetector class finds questions worded almost the same way as a new one.
+ * Each question's text is cut into overlapping character shingles and summarized by a
+ * MinHash signature, whose matching positions estimate how many shingles two questions share
+ * (their Jaccard similarity). Signatures are split into bands and each band is hashed into a
+ * bucket (locality-sensitive hashing); only questions sharing at least one bucket with the new
+ * text are compared, so a lookup never walks the whole collection.
+ *
+ * With 16 bands of 4 rows, pairs 50% similar become candidates about two times in three,
+ * and pairs 80% similar almost always.
+ */
+public class NearDuplicateDetector {
+
+    // Characters per shingle
+    private static final int SHINGLE_LENGTH = 4;
+
+    // Signature layout: BANDS * ROWS min-hash values
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int SIGNATURE_LENGTH = BANDS * ROWS;
+
+    // Default estimated similarity a question needs to be reported
+    public static final double DEFAULT_MIN_SIMILARITY = 0.5;
+
+    // Multipliers and offsets of the hash functions (fixed seed, so signatures are reproducible)
+    private static final long[] HASH_MULTIPLIERS = new long[SIGNATURE_LENGTH];
+    private static final long[] HASH_OFFSETS = new long[SIGNATURE_LENGTH];
+
+    static {
+        Random random = new Random(0x5eed);
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            HASH_MULTIPLIERS[i] = random.nextLong() | 1;
+            HASH_OFFSETS[i] = random.nextLong();
+        }
+    }
+
+    // Band bucket key -> IDs of the questions whose signature falls in that bucket
+    private Map<Long, Set<String>> buckets;
+
+    // Question ID -> signature it was indexed with
+    private Map<String, int[]> signatures;
+
+    /**
+     * Constructor initializes an empty detector.
+     */
+    public NearDuplicateDetector() {
+        this.buckets = new ConcurrentHashMap<>();
+        this.signatures = new ConcurrentHashMap<>();
+    }
+
+    //Index Maintenance
+
+    /**
+     * Indexes a question's title and body, replacing any earlier signature for the same ID.
+     * Callers must not index the same ID from two threads at once.
+     *
+     * question The question to index
+     */
+    public void addQuestion(Question question) {
+        if (question == null || question.getQuestionId() == null) {
+            return;
+        }
+        String questionId = question.getQuestionId();
+        removeQuestion(questionId);
+
+        int[] signature = signature(question.getTitle(), question.getBody());
+        if (signature == null) {
+            return;
+        }
+        signatures.put(questionId, signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.compute(bucketKey(signature, band), (key, ids) -> {
+                if (ids == null) {
+                    ids = ConcurrentHashMap.newKeySet();
+                }
+                ids.add(questionId);
+                return ids;
+            });
+        }
+    }
+
+    /**
+     * Removes a question's signature from every bucket.
+     *
+     * questionId The ID of the question to remove
+     */
+    public void removeQuestion(String questionId) {
+        int[] signature = questionId == null ? null : signatures.remove(questionId);
+        if (signature == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfPresent(bucketKey(signature, band), (key, ids) -> {
+                ids.remove(questionId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Removes everything from the detector.
+     */
+    public void clear() {
+        buckets.clear();
+        signatures.clear();
+    }
+
+    //Lookups
+
+    /**
+     * Finds the indexed questions most similar to a title and body.
+     *
+     * title The title of the new question
+     * body The body of the new question
+     * minSimilarity Lowest estimated similarity to report (0 to 1)
+     * limit Maximum number of IDs to return
+     * return IDs of similar questions, most similar first
+     */
+    public List<String> findSimilar(String title, String body, double minSimilarity, int limit) {
+        int[] signature = signature(title, body);
+        if (limit <= 0 || signature == null) {
+            return new ArrayList<>();
+        }
+
+        // Candidates share at least one band bucket with the new text
+        Set<String> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            Set<String> ids = buckets.get(bucketKey(signature, band));
+            if (ids != null) {
+                candidates.addAll(ids);
+            }
+        }
+
+        Map<String, Double> similarities = new HashMap<>();
+        for (String questionId : candidates) {
+            int[] other = signatures.get(questionId);
+            if (other == null) {
+                continue;
+            }
+            double similarity = estimateSimilarity(signature, other);
+            if (similarity >= minSimilarity) {
+                similarities.put(questionId, similarity);
+            }
+        }
+
+        return similarities.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the number of indexed questions.
+     *
+     * return Number of signatures held
+     */
+    public int size() {
+        return signatures.size();
+    }
+
+    //Helper Methods
+
+    /**
+     * Computes the MinHash signature of a title and body: for each hash function, the
+     * smallest hash of any shingle. Returns null when the text has no shingles.
+     */
+    private static int[] signature(String title, String body) {
+        Set<Integer> shingles = shingles(ContentHash.normalize(title) + " " + ContentHash.normalize(body));
+        if (shingles.isEmpty()) {
+            return null;
+        }
+
+        int[] signature = new int[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int shingle : shingles) {
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                int hash = (int) ((shingle * HASH_MULTIPLIERS[i] + HASH_OFFSETS[i]) >>> 32);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Hashes of the overlapping character shingles of normalized text, with punctuation
+     * dropped so "arraylist?" and "arraylist" shingle the same way.
+     */
+    private static Set<Integer> shingles(String text) {
+        String letters = text.replaceAll("[^\\p{L}\\p{N} ]+", "").replaceAll(" +", " ").trim();
+        Set<Integer> shingles = new HashSet<>();
+        if (letters.isEmpty()) {
+            return shingles;
+        }
+        if (letters.length() < SHINGLE_LENGTH) {
+            shingles.add(letters.hashCode());
+            return shingles;
+        }
+        for (int i = 0; i + SHINGLE_LENGTH <= letters.length(); i++) {
+            shingles.add(letters.substring(i, i + SHINGLE_LENGTH).hashCode());
+        }
+        return shingles;
+    }
+
+    // Fraction of signature positions that agree, which estimates the Jaccard similarity
+    private static double estimateSimilarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / SIGNATURE_LENGTH;
+    }
+
+    // Hash of one band's rows, salted with the band number so bands never share buckets
+    private static long bucketKey(int[] signature, int band) {
+        long key = band;
+        for (int row = 0; row < ROWS; row++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[band * ROWS + row];
+        }
+        return key;
+    }
+}
\ No newline at end of file
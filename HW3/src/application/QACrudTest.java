@@ -1,5 +1,9 @@
 package application;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
 /**
  * Simple CRUD Test for Q&A System
  * Tests Create, Read, Update, Delete operations for Questions and Answers
@@ -26,6 +30,16 @@ public class QACrudTest {
         testCase3_CreateAnswerAndUpdate(questions, answers);
         testCase4_MarkAsResolved(questions, answers);
         testCase5_DeleteOperations(questions, answers);
+        testCase6_DuplicateDetection(questions, answers);
+        testCase7_FacetCounts();
+        testCase8_ColumnarStore();
+        testCase9_DiskBackedBodies();
+        testCase10_AnswerOrder();
+        testCase11_AuthorIndexes();
+        testCase12_ChildListRemoval();
+        testCase13_ThreadDelete();
+        testCase14_ThreadLoad();
+        testCase15_ParallelRecount();
         
         // Print summary
         printSummary();
@@ -222,6 +236,566 @@ public class QACrudTest {
         System.out.println();
     }
     
+    // Test Case 6: Duplicate detection follows edits and deletes
+    private static void testCase6_DuplicateDetection(Questions questions, Answers answers) {
+        System.out.println("TEST CASE 6: Duplicate Detection");
+        System.out.println("----------------------------");
+        System.out.println("Question: Are duplicates caught ignoring case and spacing, and released by edits and deletes?");
+        System.out.println("Expected: Duplicate found while the original exists unchanged, not after it is edited or deleted");
+        System.out.println();
+        
+        Question question = new Question("What is a HashMap?", "How does a   HashMap store keys?", "testuser");
+        questions.addQuestion(question);
+        Answer answer = new Answer(question.getQuestionId(), "It hashes each key into a bucket", "helper");
+        answers.addAnswer(answer);
+        
+        boolean questionDuplicate = questions.isDuplicate("what is a hashmap?", "How does a HashMap  store KEYS?");
+        boolean answerDuplicate = answers.isDuplicate(question.getQuestionId(), "it hashes each key into a BUCKET");
+        boolean selfExcluded = !answers.isDuplicate(question.getQuestionId(), answer.getContent(), answer.getAnswerId());
+        
+        // Edit both, then the old text is free and the new text is taken
+        question.setTitle("What is a TreeMap?");
+        questions.updateQuestion(question);
+        answer.setContent("It keeps keys in a red-black tree");
+        answers.updateAnswer(answer);
+        boolean editsFollowed = !questions.isDuplicate("What is a HashMap?", "How does a HashMap store keys?") &&
+                                questions.isDuplicate("What is a TreeMap?", "How does a HashMap store keys?") &&
+                                !answers.isDuplicate(question.getQuestionId(), "It hashes each key into a bucket") &&
+                                answers.isDuplicate(question.getQuestionId(), "It keeps keys in a red-black tree");
+        
+        answers.deleteAnswer(answer.getAnswerId());
+        questions.deleteQuestion(question.getQuestionId());
+        boolean deletesFollowed = !questions.isDuplicate("What is a TreeMap?", "How does a HashMap store keys?") &&
+                                  !answers.isDuplicate(question.getQuestionId(), "It keeps keys in a red-black tree");
+        
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Question Duplicate Found: " + questionDuplicate);
+        System.out.println("  Answer Duplicate Found: " + answerDuplicate);
+        System.out.println("  Edited Answer Not Its Own Duplicate: " + selfExcluded);
+        System.out.println("  Index Follows Edits: " + editsFollowed);
+        System.out.println("  Index Follows Deletes: " + deletesFollowed);
+        System.out.println();
+        
+        // Verify
+        boolean passed = questionDuplicate && 
+                        answerDuplicate && 
+                        selfExcluded && 
+                        editsFollowed && 
+                        deletesFollowed;
+        
+        printResult(passed);
+        System.out.println();
+    }
+    
+    // Test Case 7: Facet counts follow posts, answers, resolution and deletes
+    private static void testCase7_FacetCounts() {
+        System.out.println("TEST CASE 7: Facet Counts");
+        System.out.println("----------------------------");
+        System.out.println("Question: Do the filter counts follow changes made directly on questions?");
+        System.out.println("Expected: Counts match the filtered lists overall and per author, and the recount agrees");
+        System.out.println();
+        
+        Questions questions = new Questions();
+        Question first = new Question("What is polymorphism?", "Explain with an example", "testuser");
+        Question second = new Question("What is encapsulation?", "Explain with an example", "testuser");
+        Question third = new Question("What is inheritance?", "Explain with an example", "helper");
+        questions.addQuestion(first);
+        questions.addQuestion(second);
+        questions.addQuestion(third);
+        
+        // Answer and resolve in place, without calling updateQuestion
+        first.incrementTotalAnswers();
+        first.markAsResolved("answer-1");
+        third.incrementTotalAnswers();
+        third.decrementTotalAnswers();
+        questions.deleteQuestion(second.getQuestionId());
+        
+        FacetCounts counts = questions.getCounts();
+        FacetCounts testuserCounts = questions.getCountsByAuthor("testuser");
+        
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Counts: " + counts);
+        System.out.println("  testuser Counts: " + testuserCounts);
+        System.out.println("  Recount Mismatches: " + questions.verifyCounts());
+        System.out.println();
+        
+        // Verify
+        boolean passed = counts.getTotal() == 2 && 
+                        counts.getResolved() == questions.getResolvedQuestions().size() && 
+                        counts.getUnresolved() == questions.getUnresolvedQuestions().size() && 
+                        counts.getAnswered() == 1 && 
+                        counts.getUnanswered() == questions.getUnansweredQuestions().size() && 
+                        testuserCounts.getTotal() == 1 && testuserCounts.getResolved() == 1 && 
+                        questions.verifyCounts().isEmpty();
+        
+        printResult(passed);
+        System.out.println();
+    }
+    
+    private static void testCase8_ColumnarStore() {
+        System.out.println("TEST CASE 8: Columnar Question Storage");
+        System.out.println("----------------------------");
+        System.out.println("Question: Do questions keep their data when moved into and out of a collection's store?");
+        System.out.println("Expected: Same metadata before adding, while stored and after deletion; freed slots are reused");
+        System.out.println("          and old locations of a reused slot are no longer current");
+        System.out.println();
+        
+        Questions questions = new Questions();
+        LocalDateTime createdAt = LocalDateTime.of(2025, 10, 15, 14, 30, 5, 123_000_000);
+        Question loaded = new Question("q-loaded", "What is a HashMap?", "Explain buckets", "testuser",
+                                       createdAt, createdAt.plusHours(1), true, "answer-9", 3, 2);
+        String before = loaded.toString();
+        
+        questions.addQuestion(loaded);
+        String whileStored = loaded.toString();
+        boolean sameWhileStored = whileStored.equals(before) && 
+                                  loaded.getCreatedAt().equals(createdAt) && 
+                                  "answer-9".equals(loaded.getResolvedAnswerId());
+        QuestionStore.Location stored = loaded.getLocation();
+        int slotWhileStored = stored.slot;
+        
+        questions.deleteQuestion(loaded.getQuestionId());
+        loaded.incrementTotalAnswers();
+        Question next = new Question("What is a TreeMap?", "Explain ordering", "helper");
+        questions.addQuestion(next);
+        
+        // Output
+        System.out.println("Output:");
+        System.out.println("  While Stored: " + whileStored);
+        System.out.println("  After Delete: Total Answers = " + loaded.getTotalAnswers() + ", Resolved = " + loaded.isResolved());
+        System.out.println("  Slot Reused: " + (next.getLocation().slot == slotWhileStored));
+        System.out.println("  Old Location Current: " + stored.isCurrent() + ", New Location Current: " + next.getLocation().isCurrent());
+        System.out.println("  Counts: " + questions.getCounts());
+        System.out.println();
+        
+        // Verify
+        boolean passed = sameWhileStored && 
+                        loaded.getTotalAnswers() == 4 && loaded.isResolved() && 
+                        loaded.getUpdatedAt().isAfter(createdAt) && 
+                        next.getLocation().slot == slotWhileStored && 
+                        !stored.isCurrent() && next.getLocation().isCurrent() && 
+                        "helper".equals(next.getAuthor()) && 
+                        questions.getCounts().getTotal() == 1 && 
+                        questions.verifyCounts().isEmpty();
+        
+        printResult(passed);
+        System.out.println();
+    }
+    
+    private static void testCase9_DiskBackedBodies() {
+        System.out.println("TEST CASE 9: Disk-Backed Bodies");
+        System.out.println("----------------------------");
+        System.out.println("Question: Are bodies kept on disk still read, edited, searched and cached correctly?");
+        System.out.println("Expected: Same bodies and contents as posted, evicted ones reloaded from the file");
+        System.out.println();
+        
+        boolean passed;
+        try {
+            Path file = Files.createTempFile("qa-bodies-test", ".dat");
+            try (BodyStore bodies = new BodyStore(file, 2)) {
+                Questions questions = new Questions();
+                Answers answers = new Answers();
+                Question early = new Question("What is a stack?", "Explain push and pop", "testuser");
+                questions.addQuestion(early);
+                
+                // Existing bodies move when the store is set; later ones as they are added
+                questions.setBodyStore(bodies);
+                answers.setBodyStore(bodies);
+                Question late = new Question("What is a queue?", "Explain enqueue and dequeue", "testuser");
+                questions.addQuestion(late);
+                Answer answer = new Answer(late.getQuestionId(), "First in, first out", "helper");
+                answers.addAnswer(answer);
+                late.setBody("Explain enqueue, dequeue and peek");
+                questions.updateQuestion(late);
+                
+                // Only two texts fit in the cache, so the first body is read back from the file
+                long missesBefore = bodies.getCacheMisses();
+                String earlyBody = early.getBody();
+                long misses = bodies.getCacheMisses() - missesBefore;
+                
+                // Output
+                System.out.println("Output:");
+                System.out.println("  Early Body: " + earlyBody);
+                System.out.println("  Edited Body: " + late.getBody());
+                System.out.println("  Answer Content: " + answer.getContent());
+                System.out.println("  Cached Texts: " + bodies.getCachedCount() + ", Reads From File: " + misses);
+                System.out.println("  Search 'peek': " + questions.searchQuestions("peek").size());
+                System.out.println();
+                
+                // Verify
+                passed = "Explain push and pop".equals(earlyBody) && misses == 1 && 
+                         "Explain enqueue, dequeue and peek".equals(late.getBody()) && 
+                         "First in, first out".equals(answer.getContent()) && 
+                         bodies.getCachedCount() <= 2 && 
+                         questions.searchQuestions("peek").size() == 1 && 
+                         questions.isDuplicate("What is a stack?", "explain PUSH and pop") && 
+                         answers.isDuplicate(late.getQuestionId(), "first in, first out");
+                
+                // Bodies come back into memory when the store is removed
+                questions.setBodyStore(null);
+                answers.setBodyStore(null);
+                passed &= "Explain push and pop".equals(early.getBody());
+            }
+            Files.deleteIfExists(file);
+        } catch (Exception e) {
+            System.out.println("  Error: " + e.getMessage());
+            passed = false;
+        }
+        
+        printResult(passed);
+        System.out.println();
+    }
+    
+    private static void testCase10_AnswerOrder() {
+        System.out.println("TEST CASE 10: Answer Order");
+        System.out.println("----------------------------");
+        System.out.println("Question: Are a question's answers listed oldest first, with the resolved answer first on request?");
+        System.out.println("Expected: Creation order whatever the insert order, resolved answer moved to the front, lists read-only");
+        System.out.println();
+        
+        Answers answers = new Answers();
+        LocalDateTime base = LocalDateTime.of(2025, 10, 15, 9, 0);
+        Answer first = new Answer("a-1", "q-1", "Use a HashMap", "helper", base, base, false);
+        Answer second = new Answer("a-2", "q-1", "Use a TreeMap", "testuser", base.plusMinutes(5), base.plusMinutes(5), false);
+        Answer third = new Answer("a-3", "q-1", "Use a LinkedHashMap", "helper", base.plusMinutes(9), base.plusMinutes(9), false);
+        Answer fourth = new Answer("a-4", "q-1", "Use an array", "student", base.plusMinutes(12), base.plusMinutes(12), false);
+        
+        // Added out of order, as when loading saved answers
+        answers.addAnswer(third);
+        answers.addAnswer(first);
+        answers.addAnswer(fourth);
+        answers.addAnswer(second);
+        
+        third.markAsResolved();
+        answers.updateAnswer(third);
+        answers.deleteAnswer("a-4");
+        
+        java.util.List<Answer> ordered = answers.getAnswersForQuestion("q-1");
+        java.util.List<Answer> resolvedFirst = answers.getAnswersForQuestionWithResolvedFirst("q-1", "a-3");
+        boolean readOnly;
+        try {
+            resolvedFirst.remove(0);
+            readOnly = false;
+        } catch (UnsupportedOperationException e) {
+            readOnly = true;
+        }
+        
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Creation Order: " + ids(ordered));
+        System.out.println("  Resolved First: " + ids(resolvedFirst));
+        System.out.println("  Read-Only: " + readOnly);
+        System.out.println();
+        
+        // Verify
+        boolean passed = ids(ordered).equals("[a-1, a-2, a-3]") && 
+                        ids(resolvedFirst).equals("[a-3, a-1, a-2]") && 
+                        ids(answers.getAnswersForQuestionWithResolvedFirst("q-1", null)).equals("[a-1, a-2, a-3]") && 
+                        answers.getAnswerCountForQuestion("q-1") == 3 && 
+                        answers.getAnswersForQuestion("q-2").isEmpty() && 
+                        readOnly;
+        
+        printResult(passed);
+        System.out.println();
+    }
+    
+    private static void testCase11_AuthorIndexes() {
+        System.out.println("TEST CASE 11: Contributions By Author");
+        System.out.println("----------------------------");
+        System.out.println("Question: Are a user's answers and replies listed newest first after adds, edits and deletes?");
+        System.out.println("Expected: Only the user's remaining answers and replies, most recent first");
+        System.out.println();
+        
+        Answers answers = new Answers();
+        Replies replies = new Replies();
+        LocalDateTime base = LocalDateTime.of(2025, 10, 15, 9, 0);
+        answers.addAnswer(new Answer("a-1", "q-1", "Use a HashMap", "helper", base, base, false));
+        answers.addAnswer(new Answer("a-2", "q-2", "Use a TreeMap", "helper", base.plusHours(1), base.plusHours(1), false));
+        answers.addAnswer(new Answer("a-3", "q-1", "Use an array", "student", base.plusHours(2), base.plusHours(2), false));
+        answers.addAnswer(new Answer("a-4", "q-3", "Use a Deque", "helper", base.plusHours(3), base.plusHours(3), false));
+        
+        // Edited by replacing the object, and one answer deleted with its question
+        answers.updateAnswer(new Answer("a-2", "q-2", "Use a TreeMap for ordering", "helper",
+                                        base.plusHours(1), base.plusHours(4), false));
+        answers.deleteAllAnswersForQuestion("q-3");
+        
+        replies.addReply(new Reply("r-1", "a-1", "Thanks!", "student", base.plusHours(5)));
+        replies.addReply(new Reply("r-2", "a-3", "Why an array?", "helper", base.plusHours(6)));
+        replies.addReply(new Reply("r-3", "a-1", "What about collisions?", "student", base.plusHours(7)));
+        replies.deleteReply("r-1");
+        
+        java.util.List<String> helperAnswers = new java.util.ArrayList<>();
+        for (Answer answer : answers.getAnswersByAuthor("helper")) {
+            helperAnswers.add(answer.getAnswerId() + " (" + answer.getContent() + ")");
+        }
+        java.util.List<String> studentReplies = new java.util.ArrayList<>();
+        for (Reply reply : replies.getRepliesByAuthor("student")) {
+            studentReplies.add(reply.getReplyID());
+        }
+        
+        // Output
+        System.out.println("Output:");
+        System.out.println("  helper Answers: " + helperAnswers);
+        System.out.println("  student Replies: " + studentReplies);
+        System.out.println("  helper Replies: " + replies.getReplyCountByAuthor("helper"));
+        System.out.println();
+        
+        // Verify
+        boolean passed = helperAnswers.equals(java.util.Arrays.asList("a-2 (Use a TreeMap for ordering)", "a-1 (Use a HashMap)")) && 
+                        answers.getAnswerCountByAuthor("student") == 1 && 
+                        studentReplies.equals(java.util.Arrays.asList("r-3")) && 
+                        replies.getReplyCountByAuthor("helper") == 1 && 
+                        answers.getAnswersByAuthor("nobody").isEmpty();
+        
+        answers.clearAllAnswers();
+        replies.clearAllReplies();
+        passed &= answers.getAnswerCountByAuthor("helper") == 0 && replies.getRepliesByAuthor("student").isEmpty();
+        
+        printResult(passed);
+        System.out.println();
+    }
+    
+    private static void testCase12_ChildListRemoval() {
+        System.out.println("TEST CASE 12: Removing Answers And Replies");
+        System.out.println("----------------------------");
+        System.out.println("Question: Do answer and reply lists stay correct through many single and bulk deletes?");
+        System.out.println("Expected: Remaining children in order, earlier views unchanged, bulk deletes remove everything");
+        System.out.println();
+        
+        Answers answers = new Answers();
+        Replies replies = new Replies();
+        LocalDateTime base = LocalDateTime.of(2025, 10, 15, 9, 0);
+        for (int i = 0; i < 1000; i++) {
+            answers.addAnswer(new Answer("a-" + i, "q-1", "Answer " + i, "helper",
+                                         base.plusMinutes(i), base.plusMinutes(i), false));
+            replies.addReply(new Reply("r-" + i, "a-0", "Reply " + i, "student", base.plusMinutes(i)));
+        }
+        java.util.List<Answer> before = answers.getAnswersForQuestion("q-1");
+        
+        // Delete every answer but each tenth one, plus every other reply
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 != 0) {
+                answers.deleteAnswer("a-" + i);
+            }
+            if (i % 2 == 1) {
+                replies.deleteReply("r-" + i);
+            }
+        }
+        // Loaded late, so it goes between existing answers
+        answers.addAnswer(new Answer("a-late", "q-1", "Late answer", "helper",
+                                     base.plusMinutes(15), base.plusMinutes(15), false));
+        
+        java.util.List<Answer> after = answers.getAnswersForQuestion("q-1");
+        java.util.List<Reply> remainingReplies = replies.getRepliesForAnswers("a-0");
+        boolean ordered = after.size() == 101 && "a-10".equals(after.get(1).getAnswerId()) && 
+                          "a-late".equals(after.get(2).getAnswerId()) && "a-20".equals(after.get(3).getAnswerId()) && 
+                          "a-990".equals(after.get(100).getAnswerId());
+        boolean repliesOrdered = remainingReplies.size() == 500 && 
+                                 "r-0".equals(remainingReplies.get(0).getReplyID()) && 
+                                 "r-998".equals(remainingReplies.get(499).getReplyID());
+        
+        int answersDeleted = answers.deleteAllAnswersForQuestion("q-1");
+        int repliesDeleted = replies.deleteAllRepliesForAnswer("a-0");
+        
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Earlier View Size: " + before.size());
+        System.out.println("  Remaining Answers: " + after.size() + ", In Order: " + ordered);
+        System.out.println("  Remaining Replies: " + remainingReplies.size() + ", In Order: " + repliesOrdered);
+        System.out.println("  Bulk Deleted: " + answersDeleted + " answers, " + repliesDeleted + " replies");
+        System.out.println();
+        
+        // Verify
+        boolean passed = before.size() == 1000 && "a-999".equals(before.get(999).getAnswerId()) && 
+                        ordered && repliesOrdered && 
+                        answersDeleted == 101 && repliesDeleted == 500 && 
+                        answers.getAnswerCount() == 0 && replies.getReplyCount() == 0 && 
+                        !answers.hasAnswers("q-1") && replies.getReplyCountForAnswer("a-0") == 0 && 
+                        answers.getAnswerCountByAuthor("helper") == 0;
+        
+        printResult(passed);
+        System.out.println();
+    }
+    
+    private static void testCase13_ThreadDelete() {
+        System.out.println("TEST CASE 13: Deleting Whole Threads");
+        System.out.println("----------------------------");
+        System.out.println("Question: Does deleting threads remove each question with its answers and replies everywhere?");
+        System.out.println("Expected: Only the other threads remain, in listings, counts, search and author lookups");
+        System.out.println();
+        
+        Questions questions = new Questions();
+        Answers answers = new Answers();
+        Replies replies = new Replies();
+        QuestionThreads threads = new QuestionThreads(questions, answers, replies);
+        java.util.List<String> spam = new java.util.ArrayList<>();
+        Question kept = null;
+        for (int q = 0; q < 20; q++) {
+            Question question = new Question("Question about topic" + q, "Body of question " + q, q % 2 == 0 ? "spammer" : "testuser");
+            questions.addQuestion(question);
+            for (int a = 0; a < 3; a++) {
+                Answer answer = new Answer(question.getQuestionId(), "Answer " + a + " to " + q, "helper");
+                answers.addAnswer(answer);
+                question.incrementTotalAnswers();
+                for (int r = 0; r < 2; r++) {
+                    replies.addReply(new Reply(answer.getAnswerId(), "Reply " + r, "student"));
+                }
+            }
+            if (q % 2 == 0) {
+                spam.add(question.getQuestionId());
+            } else if (kept == null) {
+                kept = question;
+            }
+        }
+        
+        // A moderation cleanup of every spam thread, with one ID repeated and one unknown
+        spam.add(spam.get(0));
+        spam.add("no-such-question");
+        QuestionThreads.Deleted deleted = threads.deleteThreads(spam);
+        QuestionThreads.Deleted single = threads.deleteThread(kept.getQuestionId());
+        
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Batch Deleted: " + deleted);
+        System.out.println("  Single Deleted: " + single);
+        System.out.println("  Remaining: " + questions.getQuestionCount() + " questions, " + 
+                           answers.getAnswerCount() + " answers, " + replies.getReplyCount() + " replies");
+        System.out.println("  Counts: " + questions.getCounts());
+        System.out.println();
+        
+        // Verify
+        boolean passed = deleted.getQuestionCount() == 10 && deleted.getAnswerCount() == 30 && 
+                        deleted.getReplyCount() == 60 && 
+                        single.getQuestionCount() == 1 && single.getAnswerCount() == 3 && single.getReplyCount() == 6 && 
+                        questions.getQuestionCount() == 9 && answers.getAnswerCount() == 27 && replies.getReplyCount() == 54 && 
+                        answers.getAllAnswers().size() == 27 && replies.getAllReplies().size() == 54 && 
+                        questions.getCounts().getTotal() == 9 && questions.getCounts().getAnswered() == 9 && 
+                        questions.getCountsByAuthor("spammer").getTotal() == 0 && 
+                        questions.getQuestionsByAuthor("spammer").isEmpty() && 
+                        questions.searchQuestions("topic0").isEmpty() && 
+                        answers.getAnswerCountByAuthor("helper") == 27 && 
+                        replies.getReplyCountByAuthor("student") == 54 && 
+                        questions.verifyCounts().isEmpty();
+        
+        printResult(passed);
+        System.out.println();
+    }
+    
+    private static void testCase14_ThreadLoad() {
+        System.out.println("TEST CASE 14: Loading A Thread");
+        System.out.println("----------------------------");
+        System.out.println("Question: Does loading a thread return the question, its answers in display order and each answer's replies?");
+        System.out.println("Expected: Resolved answer first, replies matched to their answers, no thread for a missing question");
+        System.out.println();
+        
+        Questions questions = new Questions();
+        Answers answers = new Answers();
+        Replies replies = new Replies();
+        QuestionThreads threads = new QuestionThreads(questions, answers, replies);
+        LocalDateTime base = LocalDateTime.of(2025, 10, 15, 9, 0);
+        
+        Question question = new Question("What is a deque?", "Explain double-ended queues", "testuser");
+        questions.addQuestion(question);
+        String questionId = question.getQuestionId();
+        answers.addAnswer(new Answer("a-1", questionId, "A queue with two ends", "helper", base, base, false));
+        answers.addAnswer(new Answer("a-2", questionId, "Use ArrayDeque", "student", base.plusMinutes(5), base.plusMinutes(5), false));
+        answers.addAnswer(new Answer("a-3", questionId, "It is pronounced deck", "helper", base.plusMinutes(9), base.plusMinutes(9), false));
+        replies.addReply(new Reply("r-1", "a-2", "Thanks!", "testuser", base.plusMinutes(10)));
+        replies.addReply(new Reply("r-2", "a-2", "Why not LinkedList?", "helper", base.plusMinutes(11)));
+        replies.addReply(new Reply("r-3", "a-3", "Good to know", "testuser", base.plusMinutes(12)));
+        
+        Answer resolved = answers.getAnswerById("a-2");
+        resolved.markAsResolved();
+        answers.updateAnswer(resolved);
+        question.markAsResolved("a-2");
+        questions.updateQuestion(question);
+        
+        QuestionThread thread = threads.load(questionId);
+        java.util.List<String> layout = new java.util.ArrayList<>();
+        for (int i = 0; i < thread.getAnswerCount(); i++) {
+            java.util.List<String> replyIds = new java.util.ArrayList<>();
+            for (Reply reply : thread.getReplies(i)) {
+                replyIds.add(reply.getReplyID());
+            }
+            layout.add(thread.getAnswers().get(i).getAnswerId() + replyIds);
+        }
+        
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Thread: " + thread);
+        System.out.println("  Layout: " + layout);
+        System.out.println("  Missing Question: " + threads.load("no-such-question"));
+        System.out.println();
+        
+        // Verify
+        boolean passed = thread.getQuestion() == question && 
+                        layout.equals(java.util.Arrays.asList("a-2[r-1, r-2]", "a-1[]", "a-3[r-3]")) && 
+                        thread.getReplyCount() == 3 && 
+                        threads.load("no-such-question") == null;
+        
+        printResult(passed);
+        System.out.println();
+    }
+    
+    private static void testCase15_ParallelRecount() {
+        System.out.println("TEST CASE 15: Parallel Recount");
+        System.out.println("----------------------------");
+        System.out.println("Question: Does the parallel column recount agree with a plain scan on a large store?");
+        System.out.println("Expected: Same counts overall and per author, freed slots and missing authors handled");
+        System.out.println();
+        
+        QuestionStore store = new QuestionStore();
+        int[] expectedTotals = new int[4];
+        for (int i = 0; i < 50_000; i++) {
+            String author = i % 97 == 0 ? null : "user" + (i % 3);
+            store.allocate(author, i, i, i % 5 == 0, null, i % 2, 0);
+        }
+        for (int i = 0; i < 50_000; i += 7) {
+            store.free(i);
+        }
+        store.forEachMatching(0, 0, slot -> {
+            String author = store.getAuthor(slot);
+            expectedTotals[author == null ? 3 : author.charAt(4) - '0']++;
+        });
+        
+        FacetCounts all = store.countAll();
+        java.util.Map<String, FacetCounts> byAuthor = store.countByAuthor();
+        FacetCounts overall = new FacetCounts();
+        java.util.Map<String, FacetCounts> byAuthorWithOverall = store.countByAuthor(overall);
+        FacetCounts scanned = new FacetCounts(store.countMatching(0, 0),
+                store.countMatching(QuestionStore.RESOLVED, QuestionStore.RESOLVED),
+                store.countMatching(QuestionStore.ANSWERED, QuestionStore.ANSWERED));
+        
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Parallel: " + all);
+        System.out.println("  From Author Pass: " + overall);
+        System.out.println("  Plain Scan: " + scanned);
+        System.out.println("  By Author: " + new java.util.TreeMap<>(byAuthor));
+        System.out.println();
+        
+        // Verify
+        boolean passed = all.equals(scanned) && overall.equals(scanned) &&
+                        byAuthorWithOverall.equals(byAuthor) && byAuthor.size() == 3;
+        for (int a = 0; a < 3; a++) {
+            FacetCounts counts = byAuthor.get("user" + a);
+            passed &= counts != null && counts.getTotal() == expectedTotals[a];
+        }
+        
+        printResult(passed);
+        System.out.println();
+    }
+    
+    private static String ids(java.util.List<Answer> answers) {
+        java.util.List<String> ids = new java.util.ArrayList<>();
+        for (Answer answer : answers) {
+            ids.add(answer.getAnswerId());
+        }
+        return ids.toString();
+    }
+    
     // Helper method to print test result
     private static void printResult(boolean passed) {
         totalTests++;
@@ -0,0 +1,491 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Our QueryParser class turns a search box query into a tree of search clauses.
+ * Supported syntax:
+ *
+ *   java tableview              either word (words are joined by OR, as before)
+ *   java AND tableview          both words (AND binds tighter than OR)
+ *   java -fxml, java NOT fxml   java, but not fxml
+ *   "custom cell factories"     the words next to each other, in order
+ *   title:java body:"h2 console" author:jsmith
+ *                               a word or phrase in the title or body only, or questions by an author
+ *   (java OR kotlin) AND h2     grouping; a field before a group applies to all of it
+ *
+ * Operators must be upper case; "and", "or" and "not" are ordinary words. Words and
+ * phrases are run through the index's analyzer, so stopwords drop out and the words
+ * of a phrase become the terms its positions are checked against. A word the analyzer
+ * splits into several terms ("o(1)" with the English analyzer) is treated as a phrase.
+ */
+public class QueryParser {
+
+    // Field names that can prefix a word, phrase or group
+    public static final String TITLE = "title";
+    public static final String BODY = "body";
+    public static final String AUTHOR = "author";
+
+    private final Analyzer analyzer;
+
+    /**
+     * Constructor creates a parser analyzing words the way the index does.
+     *
+     * analyzer The search index's analyzer
+     */
+    public QueryParser(Analyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    /**
+     * Parses a query.
+     *
+     * query The query typed by the user (may be null)
+     * return The clause tree, or null if nothing is left to search for (empty query, only stopwords)
+     */
+    public Node parse(String query) {
+        if (query == null) {
+            return null;
+        }
+        // Closing parentheses are only lexed inside a group, so this reads the whole query
+        return new Parser(lex(query)).parseOr(null);
+    }
+
+    //Lexer
+
+    private enum Kind { WORD, PHRASE, FIELD, AND, OR, NOT, OPEN, CLOSE }
+
+    private static final class Lexeme {
+        final Kind kind;
+        final String text;
+
+        Lexeme(Kind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+
+    // Splits a query into words, phrases, fields, operators and parentheses
+    private static List<Lexeme> lex(String query) {
+        List<Lexeme> lexemes = new ArrayList<>();
+        int depth = 0;
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                lexemes.add(new Lexeme(Kind.OPEN, "("));
+                depth++;
+                i++;
+            } else if (c == ')' && depth > 0) {
+                lexemes.add(new Lexeme(Kind.CLOSE, ")"));
+                depth--;
+                i++;
+            } else if (c == '"') {
+                int end = query.indexOf('"', i + 1);
+                end = end < 0 ? query.length() : end;
+                lexemes.add(new Lexeme(Kind.PHRASE, query.substring(i + 1, end)));
+                i = end + 1;
+            } else if (c == '-' && i + 1 < query.length() && !Character.isWhitespace(query.charAt(i + 1)) &&
+                       query.charAt(i + 1) != '-') {
+                lexemes.add(new Lexeme(Kind.NOT, "-"));
+                i++;
+            } else {
+                String field = fieldAt(query, i);
+                if (field != null) {
+                    lexemes.add(new Lexeme(Kind.FIELD, field));
+                    i += field.length() + 1;
+                    continue;
+                }
+                int start = i;
+                while (i < query.length() && !Character.isWhitespace(query.charAt(i)) &&
+                       !(depth > 0 && query.charAt(i) == ')')) {
+                    i++;
+                }
+                String word = query.substring(start, i);
+                if (word.equals("AND")) {
+                    lexemes.add(new Lexeme(Kind.AND, word));
+                } else if (word.equals("OR")) {
+                    lexemes.add(new Lexeme(Kind.OR, word));
+                } else if (word.equals("NOT")) {
+                    lexemes.add(new Lexeme(Kind.NOT, word));
+                } else {
+                    lexemes.add(new Lexeme(Kind.WORD, word));
+                }
+            }
+        }
+        return lexemes;
+    }
+
+    // The field named at a position ("title:", "body:", "author:", any case), or null
+    private static String fieldAt(String query, int i) {
+        for (String field : new String[] {TITLE, BODY, AUTHOR}) {
+            int colon = i + field.length();
+            if (query.regionMatches(true, i, field, 0, field.length()) &&
+                colon + 1 < query.length() && query.charAt(colon) == ':' &&
+                !Character.isWhitespace(query.charAt(colon + 1))) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    //Parser
+
+    // Recursive descent: or := and ((OR)? and)*, and := unary (AND unary)*, unary := NOT unary | field? primary
+    private final class Parser {
+        private final List<Lexeme> lexemes;
+        private int next;
+
+        Parser(List<Lexeme> lexemes) {
+            this.lexemes = lexemes;
+        }
+
+        private boolean atEnd() {
+            return next >= lexemes.size();
+        }
+
+        private Lexeme next() {
+            return lexemes.get(next++);
+        }
+
+        private Kind peek() {
+            return atEnd() ? null : lexemes.get(next).kind;
+        }
+
+        Node parseOr(String field) {
+            List<Node> clauses = new ArrayList<>();
+            while (!atEnd() && peek() != Kind.CLOSE) {
+                if (peek() == Kind.OR || peek() == Kind.AND) {
+                    // Operator without a left-hand side
+                    next();
+                    continue;
+                }
+                Node clause = parseAnd(field);
+                if (clause != null) {
+                    clauses.add(clause);
+                }
+            }
+            return Or.of(clauses);
+        }
+
+        private Node parseAnd(String field) {
+            List<Node> clauses = new ArrayList<>();
+            addIfPresent(clauses, parseUnary(field));
+            while (peek() == Kind.AND) {
+                next();
+                addIfPresent(clauses, parseUnary(field));
+            }
+            return And.of(clauses);
+        }
+
+        private Node parseUnary(String field) {
+            if (peek() == Kind.NOT) {
+                next();
+                Node negated = parseUnary(field);
+                return negated == null ? null : new Not(negated);
+            }
+            if (peek() == Kind.FIELD) {
+                field = next().text;
+            }
+            return parsePrimary(field);
+        }
+
+        private Node parsePrimary(String field) {
+            if (atEnd() || peek() == Kind.CLOSE) {
+                return null;
+            }
+            Lexeme lexeme = next();
+            switch (lexeme.kind) {
+                case OPEN:
+                    Node group = parseOr(field);
+                    if (peek() == Kind.CLOSE) {
+                        next();
+                    }
+                    return group;
+                case PHRASE:
+                case WORD:
+                    return clause(field, lexeme.text);
+                default:
+                    // Dangling operator, e.g. "java AND" or "title:OR"
+                    return null;
+            }
+        }
+
+        private void addIfPresent(List<Node> clauses, Node clause) {
+            if (clause != null) {
+                clauses.add(clause);
+            }
+        }
+    }
+
+    // Analyzes a word or phrase into a term, a phrase, or nothing (stopwords only)
+    private Node clause(String field, String text) {
+        if (AUTHOR.equals(field)) {
+            String author = text.trim().toLowerCase();
+            return author.isEmpty() ? null : new Term(AUTHOR, author);
+        }
+        List<Analyzer.Token> tokens = analyzer.analyze(text);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        if (tokens.size() == 1) {
+            return new Term(field, tokens.get(0).getTerm());
+        }
+        List<String> terms = new ArrayList<>(tokens.size());
+        int[] offsets = new int[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            terms.add(tokens.get(i).getTerm());
+            offsets[i] = tokens.get(i).getPosition() - tokens.get(0).getPosition();
+        }
+        return new Phrase(field, terms, offsets);
+    }
+
+    //Clauses
+
+    /**
+     * A clause of a parsed query.
+     */
+    public abstract static class Node {
+
+        /**
+         * Gets the terms this clause searches for, outside negations and author
+         * filters; used to rank and highlight the matches.
+         *
+         * return The positive search terms
+         */
+        public List<String> getKeywords() {
+            List<String> keywords = new ArrayList<>();
+            collectKeywords(keywords);
+            return keywords;
+        }
+
+        /**
+         * Checks whether the query is just a list of words matched anywhere, which
+         * the plain keyword search handles.
+         *
+         * return true if every clause is an unscoped word joined by OR
+         */
+        public boolean isKeywordList() {
+            return false;
+        }
+
+        abstract void collectKeywords(List<String> keywords);
+    }
+
+    /**
+     * A single term, optionally restricted to a field (null for title or body).
+     * For the author field the term is the lowercased user name.
+     */
+    public static final class Term extends Node {
+        private final String field;
+        private final String text;
+
+        Term(String field, String text) {
+            this.field = field;
+            this.text = text;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public boolean isKeywordList() {
+            return field == null;
+        }
+
+        @Override
+        void collectKeywords(List<String> keywords) {
+            if (!AUTHOR.equals(field)) {
+                keywords.add(text);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return field == null ? text : field + ":" + text;
+        }
+    }
+
+    /**
+     * Terms that must occur at the given word positions relative to the first one.
+     */
+    public static final class Phrase extends Node {
+        private final String field;
+        private final List<String> terms;
+        private final int[] offsets;
+
+        Phrase(String field, List<String> terms, int[] offsets) {
+            this.field = field;
+            this.terms = Collections.unmodifiableList(terms);
+            this.offsets = offsets;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public List<String> getTerms() {
+            return terms;
+        }
+
+        /**
+         * Gets the position of each term relative to the first (stopwords leave gaps).
+         *
+         * return Relative positions, one per term
+         */
+        public int[] getOffsets() {
+            return offsets.clone();
+        }
+
+        int offset(int i) {
+            return offsets[i];
+        }
+
+        @Override
+        void collectKeywords(List<String> keywords) {
+            keywords.addAll(terms);
+        }
+
+        @Override
+        public String toString() {
+            String phrase = "\"" + String.join(" ", terms) + "\"";
+            return field == null ? phrase : field + ":" + phrase;
+        }
+    }
+
+    /**
+     * Clauses that must all match.
+     */
+    public static final class And extends Node {
+        private final List<Node> clauses;
+
+        private And(List<Node> clauses) {
+            this.clauses = Collections.unmodifiableList(clauses);
+        }
+
+        static Node of(List<Node> clauses) {
+            if (clauses.isEmpty()) {
+                return null;
+            }
+            return clauses.size() == 1 ? clauses.get(0) : new And(clauses);
+        }
+
+        public List<Node> getClauses() {
+            return clauses;
+        }
+
+        @Override
+        void collectKeywords(List<String> keywords) {
+            for (Node clause : clauses) {
+                clause.collectKeywords(keywords);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return join(clauses, " AND ");
+        }
+    }
+
+    /**
+     * Clauses of which at least one must match. Negated clauses exclude questions
+     * from the others' matches (java -fxml).
+     */
+    public static final class Or extends Node {
+        private final List<Node> clauses;
+
+        private Or(List<Node> clauses) {
+            this.clauses = Collections.unmodifiableList(clauses);
+        }
+
+        static Node of(List<Node> clauses) {
+            if (clauses.isEmpty()) {
+                return null;
+            }
+            return clauses.size() == 1 ? clauses.get(0) : new Or(clauses);
+        }
+
+        public List<Node> getClauses() {
+            return clauses;
+        }
+
+        @Override
+        public boolean isKeywordList() {
+            for (Node clause : clauses) {
+                if (!(clause instanceof Term) || !clause.isKeywordList()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void collectKeywords(List<String> keywords) {
+            for (Node clause : clauses) {
+                clause.collectKeywords(keywords);
+            }
+        }
+
+        @Override
+        public String toString() {
+            // Negated clauses read as exclusions: (java OR kotlin -fxml)
+            StringBuilder text = new StringBuilder("(");
+            for (Node clause : clauses) {
+                if (!(clause instanceof Not)) {
+                    text.append(text.length() > 1 ? " OR " : "").append(clause);
+                }
+            }
+            for (Node clause : clauses) {
+                if (clause instanceof Not) {
+                    text.append(text.length() > 1 ? " " : "").append(clause);
+                }
+            }
+            return text.append(')').toString();
+        }
+    }
+
+    /**
+     * A clause that must not match.
+     */
+    public static final class Not extends Node {
+        private final Node clause;
+
+        Not(Node clause) {
+            this.clause = clause;
+        }
+
+        public Node getClause() {
+            return clause;
+        }
+
+        @Override
+        void collectKeywords(List<String> keywords) {
+            // Excluded terms are never highlighted or ranked
+        }
+
+        @Override
+        public String toString() {
+            return "-" + clause;
+        }
+    }
+
+    private static String join(List<Node> clauses, String operator) {
+        StringBuilder text = new StringBuilder("(");
+        for (int i = 0; i < clauses.size(); i++) {
+            if (i > 0) {
+                text.append(operator);
+            }
+            text.append(clauses.get(i));
+        }
+        return text.append(')').toString();
+    }
+}
\ No newline at end of file
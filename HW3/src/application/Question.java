@@ -8,6 +8,9 @@ import java.util.UUID;
 /**
  * Our Question class represents a single question in the Q&A system.
  * Stores question data including title, body, author, timestamps, and resolved status.
+ * The ID, title and body are held here; the rest of the metadata lives in one slot of a
+ * columnar QuestionStore once the question is added to a collection, so this object is a
+ * lightweight view over that slot (before then, in a small detached location).
  */
 public class Question {
     
@@ -18,14 +21,16 @@ public class Question {
     // Question attributes
     private String questionId;           
     private String title;        
-    private String body;    
-    private String author;   
-    private LocalDateTime createdAt;     
-    private LocalDateTime updatedAt;  
-    private boolean resolved;            
-    private String resolvedAnswerId;    
-    private int totalAnswers; 
-    private int newAnswers;    
+    private volatile String body;    
+    
+    // Where the body is stored when it is kept out of memory (null while body is set)
+    private volatile BodyStore.Ref bodyRef;
+    
+    // Where the author, timestamps, status and answer counts are stored
+    private volatile QuestionStore.Location location;
+    
+    // Collection notified when the resolved status or answer count changes (may be null)
+    private volatile StatusListener statusListener;
     
     /**
      * Constructor for creating a new question.
@@ -40,13 +45,8 @@ public class Question {
         this.questionId = UUID.randomUUID().toString();
         this.title = title;
         this.body = body;
-        this.author = author;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
-        this.resolved = false;
-        this.resolvedAnswerId = null;
-        this.totalAnswers = 0;
-        this.newAnswers = 0;
+        long now = QuestionStore.toMillis(LocalDateTime.now());
+        this.location = QuestionStore.detached(author, now, now, false, null, 0, 0);
     }
     
     /**
@@ -71,13 +71,8 @@ public class Question {
         this.questionId = questionId;
         this.title = title;
         this.body = body;
-        this.author = author;
-        this.createdAt = createdAt;
-        this.updatedAt = updatedAt;
-        this.resolved = resolved;
-        this.resolvedAnswerId = resolvedAnswerId;
-        this.totalAnswers = totalAnswers;
-        this.newAnswers = newAnswers;
+        this.location = QuestionStore.detached(author, QuestionStore.toMillis(createdAt), QuestionStore.toMillis(updatedAt),
+                                               resolved, resolvedAnswerId, totalAnswers, newAnswers);
     }
     
     // Getters
@@ -90,35 +85,99 @@ public class Question {
         return title;
     }
     
+    /**
+     * Gets the question body, loading it from the body store if it is kept on disk.
+     * 
+     * return The question body
+     */
     public String getBody() {
-        return body;
+        String text = body;
+        if (text != null) {
+            return text;
+        }
+        // The reference is published before body is cleared, and cleared after body is set
+        BodyStore.Ref ref = bodyRef;
+        return ref != null ? ref.load() : body;
     }
     
+    // Metadata reads are lock-free: if the location was freed meanwhile, read from the new one
     public String getAuthor() {
+        QuestionStore.Location at;
+        String author;
+        do {
+            at = location;
+            author = at.getAuthor();
+        } while (!at.isCurrent());
         return author;
     }
     
     public LocalDateTime getCreatedAt() {
-        return createdAt;
+        return QuestionStore.fromMillis(getCreatedAtMillis());
     }
     
     public LocalDateTime getUpdatedAt() {
-        return updatedAt;
+        QuestionStore.Location at;
+        long updatedAt;
+        do {
+            at = location;
+            updatedAt = at.getUpdatedAtMillis();
+        } while (!at.isCurrent());
+        return QuestionStore.fromMillis(updatedAt);
+    }
+    
+    /**
+     * Gets the creation time as epoch milliseconds, without building a LocalDateTime.
+     * Used for sorting by recency.
+     * 
+     * return Creation timestamp in milliseconds
+     */
+    public long getCreatedAtMillis() {
+        QuestionStore.Location at;
+        long createdAt;
+        do {
+            at = location;
+            createdAt = at.getCreatedAtMillis();
+        } while (!at.isCurrent());
+        return createdAt;
     }
     
     public boolean isResolved() {
+        QuestionStore.Location at;
+        boolean resolved;
+        do {
+            at = location;
+            resolved = at.isResolved();
+        } while (!at.isCurrent());
         return resolved;
     }
     
     public String getResolvedAnswerId() {
+        QuestionStore.Location at;
+        String resolvedAnswerId;
+        do {
+            at = location;
+            resolvedAnswerId = at.getResolvedAnswerId();
+        } while (!at.isCurrent());
         return resolvedAnswerId;
     }
     
     public int getTotalAnswers() {
+        QuestionStore.Location at;
+        int totalAnswers;
+        do {
+            at = location;
+            totalAnswers = at.getTotalAnswers();
+        } while (!at.isCurrent());
         return totalAnswers;
     }
     
     public int getNewAnswers() {
+        QuestionStore.Location at;
+        int newAnswers;
+        do {
+            at = location;
+            newAnswers = at.getNewAnswers();
+        } while (!at.isCurrent());
         return newAnswers;
     }
     
@@ -138,7 +197,7 @@ public class Question {
             return false;
         }
         this.title = title;
-        this.updatedAt = LocalDateTime.now();
+        touch();
         return true;
     }
     
@@ -155,8 +214,15 @@ public class Question {
         if (body.length() > MAX_BODY_LENGTH) {
             return false;
         }
-        this.body = body;
-        this.updatedAt = LocalDateTime.now();
+        synchronized (this) {
+            BodyStore.Ref ref = bodyRef;
+            if (ref != null) {
+                bodyRef = ref.getStore().append(body);
+            } else {
+                this.body = body;
+            }
+        }
+        touch();
         return true;
     }
     
@@ -166,27 +232,33 @@ public class Question {
      *answerId The ID of the answer that resolved the question
      */
     public void markAsResolved(String answerId) {
-        this.resolved = true;
-        this.resolvedAnswerId = answerId;
-        this.updatedAt = LocalDateTime.now();
+        synchronized (this) {
+            location.setResolved(answerId, nowMillis());
+        }
+        notifyStatusChanged();
     }
     
     /**
      * Marks the question as unresolved.
      */
     public void markAsUnresolved() {
-        this.resolved = false;
-        this.resolvedAnswerId = null;
-        this.updatedAt = LocalDateTime.now();
+        synchronized (this) {
+            location.setUnresolved(nowMillis());
+        }
+        notifyStatusChanged();
     }
     
     /**
      * Increments the total answer count.
      * Called when a new answer is added to this question.
+     * Synchronized, like the other status updates, so concurrent posters don't lose counts.
      */
     public void incrementTotalAnswers() {
-        this.totalAnswers++;
-        this.updatedAt = LocalDateTime.now();
+        synchronized (this) {
+            QuestionStore.Location at = location;
+            at.setTotalAnswers(at.getTotalAnswers() + 1, nowMillis());
+        }
+        notifyStatusChanged();
     }
     
     /**
@@ -194,27 +266,33 @@ public class Question {
      * Called when an answer is deleted from this question.
      */
     public void decrementTotalAnswers() {
-        if (this.totalAnswers > 0) {
-            this.totalAnswers--;
-            this.updatedAt = LocalDateTime.now();
+        synchronized (this) {
+            QuestionStore.Location at = location;
+            int totalAnswers = at.getTotalAnswers();
+            if (totalAnswers == 0) {
+                return;
+            }
+            at.setTotalAnswers(totalAnswers - 1, nowMillis());
         }
+        notifyStatusChanged();
     }
     
     /**
      * Increments the new answer count.
      * Called when a new answer is added that the question author hasn't read.
      */
-    public void incrementNewAnswers() {
-        this.newAnswers++;
-        this.updatedAt = LocalDateTime.now();
+    public synchronized void incrementNewAnswers() {
+        QuestionStore.Location at = location;
+        at.setNewAnswers(at.getNewAnswers() + 1);
+        at.setUpdatedAt(nowMillis());
     }
     
     /**
      * Resets the new answer count to zero.
      * Called when the question author views all answers.
      */
-    public void resetNewAnswers() {
-        this.newAnswers = 0;
+    public synchronized void resetNewAnswers() {
+        location.setNewAnswers(0);
     }
     
     //Utility Methods
@@ -226,6 +304,7 @@ public class Question {
      * return Formatted time string
      */
     public String getTimeAgo() {
+        LocalDateTime createdAt = getCreatedAt();
         LocalDateTime now = LocalDateTime.now();
         long minutes = ChronoUnit.MINUTES.between(createdAt, now);
         long hours = ChronoUnit.HOURS.between(createdAt, now);
@@ -251,7 +330,7 @@ public class Question {
      */
     public String getFormattedDate() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
-        return createdAt.format(formatter);
+        return getCreatedAt().format(formatter);
     }
     
     /**
@@ -262,7 +341,7 @@ public class Question {
      */
     public String getFormattedTimestamp() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
-        return createdAt.format(formatter);
+        return getCreatedAt().format(formatter);
     }
     
     /**
@@ -315,16 +394,137 @@ public class Question {
         return MAX_BODY_LENGTH;
     }
     
+    //Storage
+    
+    /**
+     * Moves this question's metadata into a slot of a collection's store.
+     * Called by the collection when the question is added.
+     * 
+     * store The store to move into
+     */
+    synchronized void attachTo(QuestionStore store) {
+        QuestionStore.Location from = location;
+        if (from.store == store) {
+            return;
+        }
+        location = store.locate(store.copyFrom(from));
+        if (from.store != null) {
+            from.store.free(from.slot);
+        }
+    }
+    
+    /**
+     * Moves this question's metadata out of a collection's store into detached fields,
+     * so the question stays usable after it is removed and the slot can be reused.
+     * 
+     * store The store the question is leaving
+     */
+    synchronized void detachFrom(QuestionStore store) {
+        QuestionStore.Location from = location;
+        if (from.store != store) {
+            return;
+        }
+        location = from.detach();
+        store.free(from.slot);
+    }
+    
+    /**
+     * Moves the body into a body store, keeping only a reference to it in memory.
+     * 
+     * store The store to append the body to
+     */
+    synchronized void moveBodyTo(BodyStore store) {
+        BodyStore.Ref ref = bodyRef;
+        if (ref != null && ref.getStore() == store) {
+            return;
+        }
+        String text = getBody();
+        if (text == null) {
+            return;
+        }
+        bodyRef = store.append(text);
+        body = null;
+    }
+    
+    /**
+     * Loads the body back into memory if it was moved into a body store.
+     */
+    synchronized void keepBodyInMemory() {
+        BodyStore.Ref ref = bodyRef;
+        if (ref == null) {
+            return;
+        }
+        body = ref.load();
+        bodyRef = null;
+    }
+    
+    /**
+     * Gets the store and slot currently holding this question's metadata.
+     * 
+     * return The current location
+     */
+    QuestionStore.Location getLocation() {
+        return location;
+    }
+    
+    // Under the question's lock, like the status updates, so a move cannot free the slot meanwhile
+    private synchronized void touch() {
+        location.setUpdatedAt(nowMillis());
+    }
+    
+    private static long nowMillis() {
+        return QuestionStore.toMillis(LocalDateTime.now());
+    }
+    
+    //Status Listener
+    
+    /**
+     * Receives status changes of the questions in a collection, so the collection's
+     * counts and filters stay current when a question is resolved or answered in place.
+     */
+    public interface StatusListener {
+        void statusChanged(Question question);
+    }
+    
+    /**
+     * Sets the collection to notify about status changes.
+     * A question belongs to one collection at a time.
+     * 
+     * listener The listener to notify, or null for none
+     */
+    public void setStatusListener(StatusListener listener) {
+        this.statusListener = listener;
+    }
+    
+    /**
+     * Removes a listener if it is the one currently set.
+     * 
+     * listener The listener to remove
+     */
+    public void clearStatusListener(StatusListener listener) {
+        if (this.statusListener == listener) {
+            this.statusListener = null;
+        }
+    }
+    
+    // Called outside the question's lock so the listener may take its own locks
+    private void notifyStatusChanged() {
+        StatusListener listener = statusListener;
+        if (listener != null) {
+            listener.statusChanged(this);
+        }
+    }
+    
     @Override
     public String toString() {
         return "Question{" +
                 "id='" + questionId + '\'' +
                 ", title='" + title + '\'' +
-                ", author='" + author + '\'' +
+                ", author='" + getAuthor() + '\'' +
                 ", createdAt=" + getFormattedTimestamp() +
-                ", resolved=" + resolved +
-                ", totalAnswers=" + totalAnswers +
-                ", newAnswers=" + newAnswers +
+                ", resolved=" + isResolved() +
+                ", totalAnswers=" + getTotalAnswers() +
+                ", newAnswers=" + getNewAnswers() +
                 '}';
     }
 }
\ No newline at end of file
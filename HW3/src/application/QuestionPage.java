@@ -0,0 +1,85 @@
+package application;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Our QuestionPage class holds one page of a question listing together with
+ * the cursor needed to fetch the page that follows it.
+ * Pages are keyed on (createdAt, questionId), so fetching the next page costs
+ * time proportional to the page size no matter how deep the listing is scrolled.
+ */
+public class QuestionPage {
+
+    private final List<Question> questions;
+    private final Cursor nextCursor;
+
+    /**
+     * Constructor for a page of questions.
+     *
+     * questions The questions on this page, most recent first
+     * nextCursor Cursor for the following page, or null if this is the last page
+     */
+    public QuestionPage(List<Question> questions, Cursor nextCursor) {
+        this.questions = Collections.unmodifiableList(questions);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Question> getQuestions() {
+        return questions;
+    }
+
+    public Cursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    public boolean isEmpty() {
+        return questions.isEmpty();
+    }
+
+    /**
+     * Position in a most-recent-first listing: the (createdAt, questionId) key of
+     * the last question already shown. The next page starts right after it.
+     */
+    public static class Cursor {
+
+        private final LocalDateTime createdAt;
+        private final String questionId;
+
+        public Cursor(LocalDateTime createdAt, String questionId) {
+            this.createdAt = createdAt;
+            this.questionId = questionId;
+        }
+
+        /**
+         * Creates the cursor positioned just after a question.
+         *
+         * question The last question of a page
+         * return Cursor for the page that follows it
+         */
+        public static Cursor after(Question question) {
+            return new Cursor(question.getCreatedAt(), question.getQuestionId());
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public String getQuestionId() {
+            return questionId;
+        }
+
+        @Override
+        public String toString() {
+            return "Cursor{" +
+                    "createdAt=" + createdAt +
+                    ", questionId='" + questionId + '\'' +
+                    '}';
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,612 @@
+package application;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Our QuestionStore class keeps question metadata in columns: one primitive array per
+ * attribute, indexed by slot number, instead of one object graph per question.
+ * Timestamps are stored as epoch milliseconds, flags as bits and authors as small ids
+ * into a shared dictionary, so a filter scan reads a few dense arrays front to back
+ * instead of chasing scattered objects.
+ *
+ * Question objects are flyweight views over a slot. A question that is not in any
+ * collection (a new question, or one that was deleted) keeps its metadata in a small
+ * detached Location of plain fields instead.
+ *
+ * Writes are synchronized on the store; reads are not, like the plain fields they replace.
+ * Freeing a slot bumps its generation before the slot can be reused, and a Location
+ * remembers the generation it was made for, so a reader holding an old Location can tell
+ * (isCurrent) that what it read may belong to another question and read again.
+ */
+public class QuestionStore {
+
+    // Bits of the flags column
+    public static final int RESOLVED = 1;
+    public static final int ANSWERED = 2;
+    public static final int LIVE = 4;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Slots per task when recounting in parallel
+    private static final int RECOUNT_CHUNK = 1 << 14;
+
+    // Volatile access to the generations column
+    private static final VarHandle GENERATION = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // Columns, replaced together when the store grows
+    private volatile Columns columns;
+
+    // Number of slots ever handed out, and slots freed by removed questions
+    private volatile int slotCount;
+    private final Deque<Integer> freeSlots;
+
+    // Interned authors: author id -> username, username -> author id
+    private final List<String> authorNames;
+    private final Map<String, Integer> authorIds;
+
+    /**
+     * Constructor creates an empty store.
+     */
+    public QuestionStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private QuestionStore(int capacity) {
+        this.columns = new Columns(capacity);
+        this.freeSlots = new ArrayDeque<>();
+        this.authorNames = Collections.synchronizedList(new ArrayList<>());
+        this.authorIds = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a location holding a single question's metadata outside any store.
+     * Used for questions that do not belong to a collection, and as search keys.
+     *
+     * return The location of the question's metadata
+     */
+    static Location detached(String author, long createdAt, long updatedAt, boolean resolved,
+                             String resolvedAnswerId, int totalAnswers, int newAnswers) {
+        return new Detached(author, createdAt, updatedAt, resolved, resolvedAnswerId, totalAnswers, newAnswers);
+    }
+
+    /**
+     * Pairs a slot of this store with the store, for a Question to point at.
+     *
+     * slot The slot number
+     * return The location of that slot
+     */
+    Location locate(int slot) {
+        return new Slot(this, slot, (int) GENERATION.getVolatile(columns.generations, slot));
+    }
+
+    //Slot Management
+
+    /**
+     * Allocates a slot and fills it with the given metadata.
+     *
+     * return The slot number
+     */
+    public synchronized int allocate(String author, long createdAt, long updatedAt, boolean resolved,
+                                     String resolvedAnswerId, int totalAnswers, int newAnswers) {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.pop();
+        } else {
+            slot = slotCount++;
+            if (slot >= columns.capacity()) {
+                columns = columns.grow(Math.max(INITIAL_CAPACITY, slot * 2));
+            }
+        }
+
+        Columns c = columns;
+        c.authorIds[slot] = author == null ? -1 : internAuthor(author);
+        c.createdAt[slot] = createdAt;
+        c.updatedAt[slot] = updatedAt;
+        c.flags[slot] = (byte) (LIVE | (resolved ? RESOLVED : 0) | (totalAnswers > 0 ? ANSWERED : 0));
+        c.resolvedAnswerIds[slot] = resolvedAnswerId;
+        c.totalAnswers[slot] = totalAnswers;
+        c.newAnswers[slot] = newAnswers;
+        return slot;
+    }
+
+    /**
+     * Copies a question's metadata into a new slot of this store.
+     *
+     * from Where the metadata is now (a slot of another store, or detached)
+     * return The new slot number in this store
+     */
+    int copyFrom(Location from) {
+        return allocate(from.getAuthor(), from.getCreatedAtMillis(), from.getUpdatedAtMillis(), from.isResolved(),
+                        from.getResolvedAnswerId(), from.getTotalAnswers(), from.getNewAnswers());
+    }
+
+    /**
+     * Frees a slot so it can be reused by a later question.
+     *
+     * slot The slot to free
+     */
+    public synchronized void free(int slot) {
+        Columns c = columns;
+        if ((c.flags[slot] & LIVE) != 0) {
+            retire(c, slot);
+            freeSlots.push(slot);
+        }
+    }
+
+    /**
+     * Frees every slot. The columns are kept (not replaced) so every old Location
+     * still finds its slot, now with a newer generation.
+     */
+    public synchronized void clear() {
+        Columns c = columns;
+        int end = Math.min(slotCount, c.capacity());
+        for (int slot = 0; slot < end; slot++) {
+            retire(c, slot);
+        }
+        slotCount = 0;
+        freeSlots.clear();
+    }
+
+    /**
+     * Checks whether a slot still holds the question it held at a given generation.
+     *
+     * slot The slot number
+     * generation The generation the reader's Location was made for
+     * return true if the slot has not been freed since
+     */
+    boolean isCurrent(int slot, int generation) {
+        // Keeps the caller's column reads before this check
+        VarHandle.acquireFence();
+        return (int) GENERATION.getVolatile(columns.generations, slot) == generation;
+    }
+
+    //Column Reads
+
+    public String getAuthor(int slot) {
+        int authorId = columns.authorIds[slot];
+        return authorId < 0 ? null : authorNames.get(authorId);
+    }
+
+    public int getAuthorId(int slot) {
+        return columns.authorIds[slot];
+    }
+
+    public long getCreatedAtMillis(int slot) {
+        return columns.createdAt[slot];
+    }
+
+    public long getUpdatedAtMillis(int slot) {
+        return columns.updatedAt[slot];
+    }
+
+    public boolean isResolved(int slot) {
+        return (columns.flags[slot] & RESOLVED) != 0;
+    }
+
+    public int getFlags(int slot) {
+        return columns.flags[slot];
+    }
+
+    public String getResolvedAnswerId(int slot) {
+        return columns.resolvedAnswerIds[slot];
+    }
+
+    public int getTotalAnswers(int slot) {
+        return columns.totalAnswers[slot];
+    }
+
+    public int getNewAnswers(int slot) {
+        return columns.newAnswers[slot];
+    }
+
+    //Column Writes
+
+    public synchronized void setResolved(int slot, String resolvedAnswerId, long updatedAt) {
+        Columns c = columns;
+        c.flags[slot] = (byte) (c.flags[slot] | RESOLVED);
+        c.resolvedAnswerIds[slot] = resolvedAnswerId;
+        c.updatedAt[slot] = updatedAt;
+    }
+
+    public synchronized void setUnresolved(int slot, long updatedAt) {
+        Columns c = columns;
+        c.flags[slot] = (byte) (c.flags[slot] & ~RESOLVED);
+        c.resolvedAnswerIds[slot] = null;
+        c.updatedAt[slot] = updatedAt;
+    }
+
+    public synchronized void setTotalAnswers(int slot, int totalAnswers, long updatedAt) {
+        Columns c = columns;
+        c.totalAnswers[slot] = totalAnswers;
+        c.flags[slot] = (byte) (totalAnswers > 0 ? c.flags[slot] | ANSWERED : c.flags[slot] & ~ANSWERED);
+        c.updatedAt[slot] = updatedAt;
+    }
+
+    public synchronized void setNewAnswers(int slot, int newAnswers) {
+        columns.newAnswers[slot] = newAnswers;
+    }
+
+    public synchronized void setUpdatedAt(int slot, long updatedAt) {
+        columns.updatedAt[slot] = updatedAt;
+    }
+
+    //Scans
+
+    /**
+     * Visits every live slot whose flags, masked, equal a value
+     * (e.g. mask RESOLVED, value 0 visits the unresolved questions).
+     * Reads only the flags column, front to back; freed slots have no LIVE bit.
+     *
+     * mask Flag bits to test
+     * value Required value of those bits
+     * action Called with each matching slot
+     */
+    public void forEachMatching(int mask, int value, IntConsumer action) {
+        Columns c = columns;
+        int end = Math.min(slotCount, c.capacity());
+        int liveMask = mask | LIVE;
+        int liveValue = value | LIVE;
+        for (int slot = 0; slot < end; slot++) {
+            if ((c.flags[slot] & liveMask) == liveValue) {
+                action.accept(slot);
+            }
+        }
+    }
+
+    /**
+     * Counts the live slots whose flags, masked, equal a value.
+     *
+     * mask Flag bits to test
+     * value Required value of those bits
+     * return Number of matching questions
+     */
+    public int countMatching(int mask, int value) {
+        int[] count = new int[1];
+        forEachMatching(mask, value, slot -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Counts the live questions of each author in one pass over the author and flags columns.
+     * Large stores are split into chunks counted in parallel (see recount).
+     *
+     * return Username -> total, resolved and answered counts
+     */
+    public Map<String, FacetCounts> countByAuthor() {
+        return countByAuthor(null);
+    }
+
+    /**
+     * Counts the live questions of each author and, from the same pass, of the whole store.
+     *
+     * overall Receives the counts of every live question, with or without an author (or null)
+     * return Username -> total, resolved and answered counts
+     */
+    public Map<String, FacetCounts> countByAuthor(FacetCounts overall) {
+        int authors = authorNames.size();
+        int[][] tally = recount(authors);
+        Map<String, FacetCounts> counts = new HashMap<>();
+        for (int authorId = 0; authorId < authors; authorId++) {
+            if (tally[0][authorId] > 0) {
+                counts.put(authorNames.get(authorId), new FacetCounts(tally[0][authorId], tally[1][authorId], tally[2][authorId]));
+            }
+        }
+        if (overall != null) {
+            overall.add(sum(tally[0]), sum(tally[1]), sum(tally[2]));
+        }
+        return counts;
+    }
+
+    /**
+     * Counts all live questions in one parallel pass. Use countByAuthor(overall) when the
+     * per-author counts are needed too, rather than scanning twice.
+     *
+     * return Total, resolved and answered counts
+     */
+    public FacetCounts countAll() {
+        int[][] tally = recount(authorNames.size());
+        return new FacetCounts(sum(tally[0]), sum(tally[1]), sum(tally[2]));
+    }
+
+    /**
+     * Number of slots ever handed out (live or freed); valid slots are below this.
+     *
+     * return The slot high-water mark
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public boolean isLive(int slot) {
+        return (columns.flags[slot] & LIVE) != 0;
+    }
+
+    /**
+     * Looks up an interned author name.
+     *
+     * authorId The author id stored in a slot
+     * return The username
+     */
+    public String getAuthorName(int authorId) {
+        return authorNames.get(authorId);
+    }
+
+    public int getAuthorCount() {
+        return authorNames.size();
+    }
+
+    /**
+     * Approximate bytes of column storage per slot (excluding shared author names
+     * and resolved answer ID strings).
+     *
+     * return Bytes per question held in the columns
+     */
+    public static int bytesPerSlot() {
+        // createdAt, updatedAt, authorId, totalAnswers, newAnswers, generation, flags, resolvedAnswerId reference
+        return Long.BYTES * 2 + Integer.BYTES * 4 + 1 + 4;
+    }
+
+    //Conversions
+
+    public static long toMillis(LocalDateTime time) {
+        return time == null ? 0 : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    //Helper Methods
+
+    // Bumps the generation before clearing, so no later write to the slot is seen without it
+    private static void retire(Columns c, int slot) {
+        GENERATION.setVolatile(c.generations, slot, (int) GENERATION.getVolatile(c.generations, slot) + 1);
+        VarHandle.releaseFence();
+        c.flags[slot] = 0;
+        c.resolvedAnswerIds[slot] = null;
+    }
+
+    /**
+     * Counts live slots per author: total, resolved and answered. The slot range is split
+     * into chunks of RECOUNT_CHUNK slots, counted in parallel on the common ForkJoinPool
+     * and merged. Questions without an author (or one interned after the scan started)
+     * are counted under index authors.
+     *
+     * authors Number of interned authors when the scan starts
+     * return Three arrays of authors + 1 counts
+     */
+    private int[][] recount(int authors) {
+        Columns c = columns;
+        int end = Math.min(slotCount, c.capacity());
+        int chunks = (end + RECOUNT_CHUNK - 1) / RECOUNT_CHUNK;
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> recount(c, chunk * RECOUNT_CHUNK, Math.min(end, (chunk + 1) * RECOUNT_CHUNK), authors))
+                .reduce(QuestionStore::merge)
+                .orElseGet(() -> new int[3][authors + 1]);
+    }
+
+    private static int sum(int[] counts) {
+        int sum = 0;
+        for (int count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    private static int[][] recount(Columns c, int from, int to, int authors) {
+        int[][] tally = new int[3][authors + 1];
+        for (int slot = from; slot < to; slot++) {
+            int flags = c.flags[slot];
+            if ((flags & LIVE) == 0) {
+                continue;
+            }
+            int authorId = c.authorIds[slot];
+            int index = authorId < 0 || authorId >= authors ? authors : authorId;
+            tally[0][index]++;
+            if ((flags & RESOLVED) != 0) {
+                tally[1][index]++;
+            }
+            if ((flags & ANSWERED) != 0) {
+                tally[2][index]++;
+            }
+        }
+        return tally;
+    }
+
+    private static int[][] merge(int[][] a, int[][] b) {
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < a[i].length; j++) {
+                a[i][j] += b[i][j];
+            }
+        }
+        return a;
+    }
+
+    private int internAuthor(String author) {
+        Integer id = authorIds.get(author);
+        if (id == null) {
+            id = authorNames.size();
+            authorNames.add(author);
+            authorIds.put(author, id);
+        }
+        return id;
+    }
+
+    /**
+     * Where a question's metadata lives: a slot of a store, or detached fields of its own.
+     * A Question switches location by replacing a single reference, so readers never see
+     * a slot paired with the wrong store. Writers hold the question's lock; lock-free
+     * readers check isCurrent after reading and start over from the question if it fails.
+     */
+    abstract static class Location {
+        // The store and slot, or null and -1 when detached
+        final QuestionStore store;
+        final int slot;
+
+        private Location(QuestionStore store, int slot) {
+            this.store = store;
+            this.slot = slot;
+        }
+
+        abstract String getAuthor();
+        abstract long getCreatedAtMillis();
+        abstract long getUpdatedAtMillis();
+        abstract boolean isResolved();
+        abstract String getResolvedAnswerId();
+        abstract int getTotalAnswers();
+        abstract int getNewAnswers();
+
+        abstract void setResolved(String resolvedAnswerId, long updatedAt);
+        abstract void setUnresolved(long updatedAt);
+        abstract void setTotalAnswers(int totalAnswers, long updatedAt);
+        abstract void setNewAnswers(int newAnswers);
+        abstract void setUpdatedAt(long updatedAt);
+
+        // false once the slot has been freed, so earlier reads may be another question's
+        abstract boolean isCurrent();
+
+        // A detached copy of the metadata, for a question leaving its store
+        Location detach() {
+            return detached(getAuthor(), getCreatedAtMillis(), getUpdatedAtMillis(), isResolved(),
+                            getResolvedAnswerId(), getTotalAnswers(), getNewAnswers());
+        }
+    }
+
+    // A slot of a store: reads and writes go to the columns
+    private static final class Slot extends Location {
+        private final int generation;
+
+        Slot(QuestionStore store, int slot, int generation) {
+            super(store, slot);
+            this.generation = generation;
+        }
+
+        String getAuthor() { return store.getAuthor(slot); }
+        long getCreatedAtMillis() { return store.getCreatedAtMillis(slot); }
+        long getUpdatedAtMillis() { return store.getUpdatedAtMillis(slot); }
+        boolean isResolved() { return store.isResolved(slot); }
+        String getResolvedAnswerId() { return store.getResolvedAnswerId(slot); }
+        int getTotalAnswers() { return store.getTotalAnswers(slot); }
+        int getNewAnswers() { return store.getNewAnswers(slot); }
+
+        void setResolved(String resolvedAnswerId, long updatedAt) { store.setResolved(slot, resolvedAnswerId, updatedAt); }
+        void setUnresolved(long updatedAt) { store.setUnresolved(slot, updatedAt); }
+        void setTotalAnswers(int totalAnswers, long updatedAt) { store.setTotalAnswers(slot, totalAnswers, updatedAt); }
+        void setNewAnswers(int newAnswers) { store.setNewAnswers(slot, newAnswers); }
+        void setUpdatedAt(long updatedAt) { store.setUpdatedAt(slot, updatedAt); }
+
+        boolean isCurrent() { return store.isCurrent(slot, generation); }
+    }
+
+    // Metadata of a question outside any store, in plain fields (no columns or dictionary)
+    private static final class Detached extends Location {
+        private final String author;
+        private final long createdAt;
+        private volatile long updatedAt;
+        private volatile boolean resolved;
+        private volatile String resolvedAnswerId;
+        private volatile int totalAnswers;
+        private volatile int newAnswers;
+
+        Detached(String author, long createdAt, long updatedAt, boolean resolved,
+                 String resolvedAnswerId, int totalAnswers, int newAnswers) {
+            super(null, -1);
+            this.author = author;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+            this.resolved = resolved;
+            this.resolvedAnswerId = resolvedAnswerId;
+            this.totalAnswers = totalAnswers;
+            this.newAnswers = newAnswers;
+        }
+
+        String getAuthor() { return author; }
+        long getCreatedAtMillis() { return createdAt; }
+        long getUpdatedAtMillis() { return updatedAt; }
+        boolean isResolved() { return resolved; }
+        String getResolvedAnswerId() { return resolvedAnswerId; }
+        int getTotalAnswers() { return totalAnswers; }
+        int getNewAnswers() { return newAnswers; }
+
+        void setResolved(String resolvedAnswerId, long updatedAt) {
+            this.resolvedAnswerId = resolvedAnswerId;
+            this.resolved = true;
+            this.updatedAt = updatedAt;
+        }
+
+        void setUnresolved(long updatedAt) {
+            this.resolvedAnswerId = null;
+            this.resolved = false;
+            this.updatedAt = updatedAt;
+        }
+
+        void setTotalAnswers(int totalAnswers, long updatedAt) {
+            this.totalAnswers = totalAnswers;
+            this.updatedAt = updatedAt;
+        }
+
+        void setNewAnswers(int newAnswers) {
+            this.newAnswers = newAnswers;
+        }
+
+        void setUpdatedAt(long updatedAt) {
+            this.updatedAt = updatedAt;
+        }
+
+        boolean isCurrent() {
+            return true;
+        }
+    }
+
+    /**
+     * The column arrays. Grown by copying into a larger instance.
+     */
+    private static class Columns {
+        final int[] authorIds;
+        final long[] createdAt;
+        final long[] updatedAt;
+        final byte[] flags;
+        final String[] resolvedAnswerIds;
+        final int[] totalAnswers;
+        final int[] newAnswers;
+        // Bumped each time a slot is freed
+        final int[] generations;
+
+        Columns(int capacity) {
+            authorIds = new int[capacity];
+            createdAt = new long[capacity];
+            updatedAt = new long[capacity];
+            flags = new byte[capacity];
+            resolvedAnswerIds = new String[capacity];
+            totalAnswers = new int[capacity];
+            newAnswers = new int[capacity];
+            generations = new int[capacity];
+        }
+
+        int capacity() {
+            return flags.length;
+        }
+
+        Columns grow(int capacity) {
+            Columns grown = new Columns(capacity);
+            int n = capacity();
+            System.arraycopy(authorIds, 0, grown.authorIds, 0, n);
+            System.arraycopy(createdAt, 0, grown.createdAt, 0, n);
+            System.arraycopy(updatedAt, 0, grown.updatedAt, 0, n);
+            System.arraycopy(flags, 0, grown.flags, 0, n);
+            System.arraycopy(resolvedAnswerIds, 0, grown.resolvedAnswerIds, 0, n);
+            System.arraycopy(totalAnswers, 0, grown.totalAnswers, 0, n);
+            System.arraycopy(newAnswers, 0, grown.newAnswers, 0, n);
+            System.arraycopy(generations, 0, grown.generations, 0, n);
+            return grown;
+        }
+    }
+}
\ No newline at end of file
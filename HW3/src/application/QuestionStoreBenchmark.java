@@ -0,0 +1,108 @@
+package application;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap used per question by the columnar QuestionStore layout against
+ * the previous layout, where every question held its own LocalDateTime objects,
+ * author reference, flags and counters.
+ *
+ * Both layouts share the same ID, title and body strings, so the difference is the
+ * metadata alone. Run with a fixed heap (e.g. -Xms1g -Xmx1g) for steadier numbers.
+ */
+public class QuestionStoreBenchmark {
+
+    private static final int QUESTIONS = 200_000;
+    private static final int AUTHORS = 500;
+
+    /**
+     * The per-question fields of the previous Question class.
+     */
+    private static class LegacyQuestion {
+        String questionId;
+        String title;
+        String body;
+        String author;
+        LocalDateTime createdAt;
+        LocalDateTime updatedAt;
+        boolean resolved;
+        String resolvedAnswerId;
+        int totalAnswers;
+        int newAnswers;
+    }
+
+    public static void main(String[] args) {
+        System.out.println("QuestionStore memory benchmark (" + QUESTIONS + " questions, " + AUTHORS + " authors)");
+
+        // Shared text, so only the metadata layout differs between the two runs
+        String[] authors = new String[AUTHORS];
+        for (int i = 0; i < AUTHORS; i++) {
+            authors[i] = "user" + i;
+        }
+        String[] ids = new String[QUESTIONS];
+        for (int i = 0; i < QUESTIONS; i++) {
+            ids[i] = "q" + i;
+        }
+        String title = "How do I iterate over an ArrayList?";
+        String body = "I keep getting a ConcurrentModificationException when removing items.";
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+
+        long before = usedMemory();
+        List<LegacyQuestion> legacy = new ArrayList<>(QUESTIONS);
+        for (int i = 0; i < QUESTIONS; i++) {
+            LegacyQuestion q = new LegacyQuestion();
+            q.questionId = ids[i];
+            q.title = title;
+            q.body = body;
+            q.author = authors[i % AUTHORS];
+            q.createdAt = start.plusSeconds(i * 37L);
+            q.updatedAt = q.createdAt.plusMinutes(i % 90);
+            q.resolved = i % 3 == 0;
+            q.totalAnswers = i % 5;
+            legacy.add(q);
+        }
+        double legacyBytes = (double) (usedMemory() - before) / QUESTIONS;
+        int legacyCount = legacy.size();
+        legacy = null;
+
+        before = usedMemory();
+        Questions questions = new Questions();
+        List<Question> views = new ArrayList<>(QUESTIONS);
+        for (int i = 0; i < QUESTIONS; i++) {
+            LocalDateTime createdAt = start.plusSeconds(i * 37L);
+            Question q = new Question(ids[i], title, body, authors[i % AUTHORS],
+                                      createdAt, createdAt.plusMinutes(i % 90), i % 3 == 0, null, i % 5, 0);
+            q.attachTo(questions.getStore());
+            views.add(q);
+        }
+        double columnarBytes = (double) (usedMemory() - before) / QUESTIONS;
+
+        // Filter scan over the flags column
+        long scanStart = System.nanoTime();
+        int unresolved = questions.getStore().countMatching(QuestionStore.RESOLVED, 0);
+        long scanMicros = (System.nanoTime() - scanStart) / 1000;
+
+        System.out.printf("Previous layout: %.1f bytes per question (%d questions)%n", legacyBytes, legacyCount);
+        System.out.printf("Columnar layout: %.1f bytes per question (%d questions)%n", columnarBytes, views.size());
+        System.out.printf("Reduction:       %.1f bytes per question (%.0f%%)%n",
+                legacyBytes - columnarBytes, 100 * (legacyBytes - columnarBytes) / legacyBytes);
+        System.out.printf("Column bytes per slot: %d%n", QuestionStore.bytesPerSlot());
+        System.out.println("Unresolved scan: " + unresolved + " questions in " + scanMicros + " us");
+    }
+
+    // Heap in use after encouraging a full collection
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package application;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Our QuestionThread class holds everything the question detail view shows: a question,
+ * its answers (the resolved answer first, then oldest first) and each answer's replies in
+ * posting order. Threads are loaded by QuestionThreads.load and are read-only.
+ */
+public class QuestionThread {
+
+    private final Question question;
+    private final List<Answer> answers;
+    // Replies of each answer, at the same position as the answer
+    private final List<List<Reply>> replies;
+    private final int replyCount;
+
+    QuestionThread(Question question, List<Answer> answers, List<List<Reply>> replies, int replyCount) {
+        this.question = question;
+        this.answers = answers;
+        this.replies = Collections.unmodifiableList(replies);
+        this.replyCount = replyCount;
+    }
+
+    //Getters
+
+    public Question getQuestion() {
+        return question;
+    }
+
+    /**
+     * Gets the answers in display order.
+     *
+     * return Read-only list, resolved answer first
+     */
+    public List<Answer> getAnswers() {
+        return answers;
+    }
+
+    /**
+     * Gets the replies to one of the answers.
+     *
+     * answerIndex Position of the answer in getAnswers()
+     * return Read-only list of its replies in posting order
+     */
+    public List<Reply> getReplies(int answerIndex) {
+        return replies.get(answerIndex);
+    }
+
+    public int getAnswerCount() {
+        return answers.size();
+    }
+
+    // Replies to all of the answers together
+    public int getReplyCount() {
+        return replyCount;
+    }
+
+    @Override
+    public String toString() {
+        return "QuestionThread{" +
+                "questionId='" + question.getQuestionId() + '\'' +
+                ", answers=" + answers.size() +
+                ", replies=" + replyCount +
+                '}';
+    }
+}
\ No newline at end of file
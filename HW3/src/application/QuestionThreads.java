@@ -0,0 +1,188 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Our QuestionThreads class works on whole threads: a question with its answers and
+ * their replies, which live in three separate collections.
+ *
+ * Loading a thread walks its answers once and picks up each answer's replies on the way,
+ * using the lists' shared read-only views instead of copies. Once questions, answers and
+ * replies are stored in the database, load is the one place to change: a single query
+ * joining the three tables for the question (ordered by answer, then reply) fills the same
+ * QuestionThread, instead of one query for the answers plus one per answer for replies.
+ *
+ * Deleting threads locks the stripes of every question, answer and reply list involved
+ * (always questions, then answers, then replies) and removes each thread in one pass over
+ * its answers. Other writers to those threads and snapshot readers wait until the delete
+ * is done, so they never see a question gone while its answers or replies remain.
+ */
+public class QuestionThreads {
+
+    private final Questions questions;
+    private final Answers answers;
+    private final Replies replies;
+
+    /**
+     * Constructor for threads stored in the given collections.
+     *
+     * questions The questions collection
+     * answers The answers collection
+     * replies The replies collection
+     */
+    public QuestionThreads(Questions questions, Answers answers, Replies replies) {
+        this.questions = questions;
+        this.answers = answers;
+        this.replies = replies;
+    }
+
+    //Loading
+
+    /**
+     * Loads a question with its answers and their replies, for the question detail view.
+     *
+     * questionId The question's ID
+     * return The thread, or null if the question does not exist
+     */
+    public QuestionThread load(String questionId) {
+        Question question = questions.getQuestionById(questionId);
+        if (question == null) {
+            return null;
+        }
+
+        List<Answer> threadAnswers = answers.getAnswersForQuestionWithResolvedFirst(
+                questionId, question.getResolvedAnswerId());
+        List<List<Reply>> threadReplies = new ArrayList<>(threadAnswers.size());
+        int replyCount = 0;
+        for (Answer answer : threadAnswers) {
+            List<Reply> answerReplies = replies.getRepliesForAnswers(answer.getAnswerId());
+            threadReplies.add(answerReplies);
+            replyCount += answerReplies.size();
+        }
+        return new QuestionThread(question, threadAnswers, threadReplies, replyCount);
+    }
+
+    //Deletes
+
+    /**
+     * Deletes a question with all of its answers and their replies.
+     *
+     * questionId The question's ID
+     * return What was deleted
+     */
+    public Deleted deleteThread(String questionId) {
+        return deleteThreads(Collections.singletonList(questionId));
+    }
+
+    /**
+     * Deletes several questions with all of their answers and replies, e.g. for a moderation
+     * cleanup. Each lock is taken once for the whole batch instead of once per item.
+     * Answers left behind by a question deleted earlier are removed too.
+     *
+     * questionIds IDs of the questions to delete
+     * return What was deleted
+     */
+    public Deleted deleteThreads(Collection<String> questionIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String questionId : questionIds) {
+            if (questionId != null) {
+                ids.add(questionId);
+            }
+        }
+        if (ids.isEmpty()) {
+            return new Deleted(new ArrayList<>(), 0, 0);
+        }
+
+        List<ReentrantLock> questionLocks = questions.getLocks().lockEach(ids);
+        try {
+            List<ReentrantLock> answerLocks = answers.getLocks().lockEach(ids);
+            try {
+                // No answer can be added to these questions now, so the reply stripes are known
+                List<String> answerIds = new ArrayList<>();
+                for (String questionId : ids) {
+                    for (Answer answer : answers.getAnswersForQuestion(questionId)) {
+                        answerIds.add(answer.getAnswerId());
+                    }
+                }
+
+                List<ReentrantLock> replyLocks = replies.getLocks().lockEach(answerIds);
+                try {
+                    return delete(ids);
+                } finally {
+                    replies.getLocks().unlock(replyLocks);
+                }
+            } finally {
+                answers.getLocks().unlock(answerLocks);
+            }
+        } finally {
+            questions.getLocks().unlock(questionLocks);
+        }
+    }
+
+    //Helper Methods
+
+    // Called with every stripe involved held; the collections' own writers re-enter them
+    private Deleted delete(Set<String> ids) {
+        List<String> deletedQuestions = new ArrayList<>(ids.size());
+        int deletedAnswers = 0;
+        int deletedReplies = 0;
+
+        for (String questionId : ids) {
+            if (questions.deleteQuestion(questionId)) {
+                deletedQuestions.add(questionId);
+            }
+            for (Answer answer : answers.removeAllAnswersForQuestion(questionId)) {
+                deletedReplies += replies.deleteAllRepliesForAnswer(answer.getAnswerId());
+                deletedAnswers++;
+            }
+        }
+        return new Deleted(deletedQuestions, deletedAnswers, deletedReplies);
+    }
+
+    /**
+     * What a delete removed.
+     */
+    public static final class Deleted {
+        private final List<String> questionIds;
+        private final int answerCount;
+        private final int replyCount;
+
+        Deleted(List<String> questionIds, int answerCount, int replyCount) {
+            this.questionIds = Collections.unmodifiableList(questionIds);
+            this.answerCount = answerCount;
+            this.replyCount = replyCount;
+        }
+
+        // IDs of the questions that existed and were deleted
+        public List<String> getQuestionIds() {
+            return questionIds;
+        }
+
+        public int getQuestionCount() {
+            return questionIds.size();
+        }
+
+        public int getAnswerCount() {
+            return answerCount;
+        }
+
+        public int getReplyCount() {
+            return replyCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Deleted{" +
+                    "questions=" + questionIds.size() +
+                    ", answers=" + answerCount +
+                    ", replies=" + replyCount +
+                    '}';
+        }
+    }
+}
\ No newline at end of file
@@ -1,22 +1,112 @@
 package application;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
  * Our Questions class manages a collection of all questions in the Q&A system.
  * Provides CRUD operations and filtering/searching capabilities for questions.
+ * 
+ * The collection is thread-safe: reads never lock, and writers only lock the
+ * stripe of the question they change, so questions can be loaded and searched
+ * off the JavaFX Application Thread.
  */
 public class Questions {
     
-    // Store all questions in a HashMap 
+    // Number of lock stripes used to serialize writers to the same question
+    private static final int LOCK_STRIPES = 64;
+    
+    // Store all questions in a concurrent map so reads need no locking
     private Map<String, Question> questionsMap;
     
+    // Serializes add/update/delete of the same question ID
+    private StripedLocks locks;
+    
+    // Immutable copy of all questions, republished after changes
+    private final CollectionSnapshot<Question> snapshot;
+    
+    // Inverted index over question titles and bodies used by the search methods
+    // (replaced when the number of shards or the analyzer changes)
+    private volatile ShardedSearchIndex searchIndex;
+    
+    // Recent filtered search results, and a version bumped after every change that
+    // could alter them (adds, edits, deletes and status changes)
+    private final SearchResultCache<Question> searchCache;
+    private final AtomicLong searchVersion;
+    
+    // Sorted dictionary of title words used for search-as-you-type suggestions
+    private TitlePrefixIndex titleIndex;
+    
+    // Columnar storage of the questions' metadata (timestamps, status, counts, author)
+    private final QuestionStore store;
+    
+    // Secondary indexes kept sorted by most recent first, so filters never re-sort
+    // (concurrent skip lists, so they can be walked while other threads post)
+    private NavigableSet<Question> recencyIndex;
+    private NavigableSet<Question> resolvedIndex;
+    private NavigableSet<Question> unresolvedIndex;
+    private NavigableSet<Question> answeredIndex;
+    private NavigableSet<Question> unansweredIndex;
+    private Map<String, NavigableSet<Question>> authorIndex;
+    
+    // Normalized title+body hash -> question IDs, and the hash each question was indexed under
+    // (questions are edited in place, so the old hash cannot be recomputed from the object)
+    private Map<Long, Set<String>> contentIndex;
+    private Map<String, Long> contentHashes;
+    
+    // Optional MinHash/LSH index for finding reworded questions (null while disabled)
+    private volatile NearDuplicateDetector nearDuplicates;
+    
+    // Optional disk-backed storage for question bodies (null while bodies stay in memory)
+    private volatile BodyStore bodyStore;
+    
+    // Facet counts for the whole collection and per author, and the status each question
+    // was counted with (RESOLVED_BIT | ANSWERED_BIT), so a change can be uncounted exactly
+    private final FacetCounts counts;
+    private Map<String, FacetCounts> countsByAuthor;
+    private Map<String, Integer> countedStatus;
+    private static final int RESOLVED_BIT = 1;
+    private static final int ANSWERED_BIT = 2;
+    
+    // Registered on every question in the collection so in-place status changes are counted
+    private final Question.StatusListener statusListener = this::statusChanged;
+    
+    /**
+     * Orders questions by creation date (newest first), then by ID.
+     * Creation date and ID never change, so a question's position in an index is fixed.
+     * Compares the stored milliseconds, so no LocalDateTime is built per comparison.
+     */
+    public static final Comparator<Question> MOST_RECENT_FIRST =
+            Comparator.comparingLong(Question::getCreatedAtMillis).reversed()
+                    .thenComparing(Question::getQuestionId);
+    
     /**
      * Constructor initializes an empty questions collection.
      */
     public Questions() {
-        this.questionsMap = new HashMap<>();
+        this.questionsMap = new ConcurrentHashMap<>();
+        this.locks = new StripedLocks(LOCK_STRIPES);
+        this.snapshot = new CollectionSnapshot<>(questionsMap.values(), locks);
+        this.searchIndex = new ShardedSearchIndex(1);
+        this.titleIndex = new TitlePrefixIndex();
+        this.searchCache = new SearchResultCache<>(SearchResultCache.DEFAULT_CAPACITY);
+        this.searchVersion = new AtomicLong();
+        this.store = new QuestionStore();
+        this.recencyIndex = new ConcurrentSkipListSet<>(MOST_RECENT_FIRST);
+        this.resolvedIndex = new ConcurrentSkipListSet<>(MOST_RECENT_FIRST);
+        this.unresolvedIndex = new ConcurrentSkipListSet<>(MOST_RECENT_FIRST);
+        this.answeredIndex = new ConcurrentSkipListSet<>(MOST_RECENT_FIRST);
+        this.unansweredIndex = new ConcurrentSkipListSet<>(MOST_RECENT_FIRST);
+        this.authorIndex = new ConcurrentHashMap<>();
+        this.contentIndex = new ConcurrentHashMap<>();
+        this.contentHashes = new ConcurrentHashMap<>();
+        this.counts = new FacetCounts();
+        this.countsByAuthor = new ConcurrentHashMap<>();
+        this.countedStatus = new ConcurrentHashMap<>();
     }
     
     //CRUD Operations
@@ -32,13 +122,28 @@ public class Questions {
             return false;
         }
         
-        // Check if question with this ID already exists
-        if (questionsMap.containsKey(question.getQuestionId())) {
-            return false;
+        ReentrantLock lock = locks.lockFor(question.getQuestionId());
+        lock.lock();
+        try {
+            // Check if question with this ID already exists
+            if (questionsMap.putIfAbsent(question.getQuestionId(), question) != null) {
+                return false;
+            }
+            
+            // Listen before indexing, so a status change made meanwhile is picked up
+            // once this lock is released
+            question.attachTo(store);
+            question.setStatusListener(statusListener);
+            moveBody(question);
+            searchIndex.addQuestion(question);
+            titleIndex.addQuestion(question);
+            addToIndexes(question);
+            snapshot.invalidate();
+            searchVersion.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
         }
-        
-        questionsMap.put(question.getQuestionId(), question);
-        return true;
     }
     
     /**
@@ -48,21 +153,44 @@ public class Questions {
      * return The question object, or null if not found
      */
     public Question getQuestionById(String questionId) {
-        return questionsMap.get(questionId);
+        return questionId == null ? null : questionsMap.get(questionId);
     }
     
     /**
      * READ: Retrieves all questions in the system.
+     * The list is an immutable snapshot shared by every caller until the next change,
+     * so reading it repeatedly does not copy the collection.
      * 
-     * return List of all questions
+     * return Unmodifiable list of all questions
      */
     public List<Question> getAllQuestions() {
-        return new ArrayList<>(questionsMap.values());
+        return snapshot.get();
+    }
+    
+    /**
+     * Gets a number that changes whenever a question is added, replaced or deleted.
+     * 
+     * return The collection's version
+     */
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+    
+    /**
+     * Gets the locks writers hold, keyed by question ID.
+     * QuestionThreads holds them while changing several collections together.
+     * 
+     * return The collection's striped locks
+     */
+    StripedLocks getLocks() {
+        return locks;
     }
     
     /**
      * UPDATE: Updates an existing question in the collection.
      * Note: The question's ID cannot be changed.
+     * Must be called after editing a question's title or body so searches see the change.
+     * Resolving or answering a question in place is picked up automatically.
      * 
      * question The updated question object
      * return true if question was updated successfully, false if question doesn't exist
@@ -72,13 +200,32 @@ public class Questions {
             return false;
         }
         
-        // Check if question exists
-        if (!questionsMap.containsKey(question.getQuestionId())) {
-            return false;
+        ReentrantLock lock = locks.lockFor(question.getQuestionId());
+        lock.lock();
+        try {
+            // Check if question exists
+            Question previous = questionsMap.replace(question.getQuestionId(), question);
+            if (previous == null) {
+                return false;
+            }
+            
+            searchIndex.updateQuestion(question);
+            titleIndex.updateQuestion(question);
+            removeFromIndexes(previous);
+            if (previous != question) {
+                previous.clearStatusListener(statusListener);
+                previous.detachFrom(store);
+                question.attachTo(store);
+                question.setStatusListener(statusListener);
+                moveBody(question);
+            }
+            addToIndexes(question);
+            snapshot.invalidate();
+            searchVersion.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
         }
-        
-        questionsMap.put(question.getQuestionId(), question);
-        return true;
     }
     
     /**
@@ -88,12 +235,29 @@ public class Questions {
      * return true if question was deleted successfully, false if question doesn't exist
      */
     public boolean deleteQuestion(String questionId) {
-        if (questionId == null || !questionsMap.containsKey(questionId)) {
+        if (questionId == null) {
             return false;
         }
         
-        questionsMap.remove(questionId);
-        return true;
+        ReentrantLock lock = locks.lockFor(questionId);
+        lock.lock();
+        try {
+            Question removed = questionsMap.remove(questionId);
+            if (removed == null) {
+                return false;
+            }
+            
+            searchIndex.removeQuestion(questionId);
+            titleIndex.removeQuestion(questionId);
+            removeFromIndexes(removed);
+            removed.clearStatusListener(statusListener);
+            removed.detachFrom(store);
+            snapshot.invalidate();
+            searchVersion.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
     }
     
     //Filtering and Search Operations
@@ -104,9 +268,7 @@ public class Questions {
      * return List of questions sorted by creation date (newest first)
      */
     public List<Question> getAllQuestionsSortedByMostRecent() {
-        return questionsMap.values().stream()
-                .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .collect(Collectors.toList());
+        return new ArrayList<>(recencyIndex);
     }
     
     /**
@@ -115,10 +277,7 @@ public class Questions {
      * return List of unresolved questions
      */
     public List<Question> getUnresolvedQuestions() {
-        return questionsMap.values().stream()
-                .filter(q -> !q.isResolved())
-                .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .collect(Collectors.toList());
+        return new ArrayList<>(unresolvedIndex);
     }
     
     /**
@@ -127,10 +286,7 @@ public class Questions {
      * return List of resolved questions
      */
     public List<Question> getResolvedQuestions() {
-        return questionsMap.values().stream()
-                .filter(Question::isResolved)
-                .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .collect(Collectors.toList());
+        return new ArrayList<>(resolvedIndex);
     }
     
     /**
@@ -139,10 +295,7 @@ public class Questions {
      * return List of answered questions
      */
     public List<Question> getAnsweredQuestions() {
-        return questionsMap.values().stream()
-                .filter(q -> q.getTotalAnswers() > 0)
-                .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .collect(Collectors.toList());
+        return new ArrayList<>(answeredIndex);
     }
     
     /**
@@ -151,10 +304,7 @@ public class Questions {
      * return List of unanswered questions
      */
     public List<Question> getUnansweredQuestions() {
-        return questionsMap.values().stream()
-                .filter(q -> q.getTotalAnswers() == 0)
-                .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .collect(Collectors.toList());
+        return new ArrayList<>(unansweredIndex);
     }
     
     /**
@@ -168,10 +318,13 @@ public class Questions {
             return new ArrayList<>();
         }
         
-        return questionsMap.values().stream()
-                .filter(q -> q.getAuthor().equals(username) && !q.isResolved())
-                .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .collect(Collectors.toList());
+        List<Question> result = new ArrayList<>();
+        for (Question q : authorIndex.getOrDefault(username, Collections.emptyNavigableSet())) {
+            if (!q.isResolved()) {
+                result.add(q);
+            }
+        }
+        return result;
     }
     
     /**
@@ -185,20 +338,140 @@ public class Questions {
             return new ArrayList<>();
         }
         
-        return questionsMap.values().stream()
-                .filter(q -> q.getAuthor().equals(username))
-                .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .collect(Collectors.toList());
+        return new ArrayList<>(authorIndex.getOrDefault(username, Collections.emptyNavigableSet()));
+    }
+    
+    //Paginated Listings
+    
+    /**
+     * Gets one page of a filtered listing, most recent first.
+     * The page starts right after the cursor, so each call costs time proportional
+     * to the page size instead of materializing and sorting the whole collection.
+     * 
+     * filter Filter option: "all", "most recent", "unresolved", "resolved", "answered", "unanswered"
+     * afterCursor Cursor returned with the previous page, or null for the first page
+     * limit Maximum number of questions on the page
+     * return The page and the cursor for the next one
+     */
+    public QuestionPage page(String filter, QuestionPage.Cursor afterCursor, int limit) {
+        return page(indexForFilter(filter), afterCursor, limit, false);
+    }
+    
+    /**
+     * Gets one page of a user's questions, most recent first.
+     * 
+     * username The username of the question author
+     * unresolvedOnly true to skip resolved questions ("My Unresolved")
+     * afterCursor Cursor returned with the previous page, or null for the first page
+     * limit Maximum number of questions on the page
+     * return The page and the cursor for the next one
+     */
+    public QuestionPage pageByAuthor(String username, boolean unresolvedOnly,
+                                     QuestionPage.Cursor afterCursor, int limit) {
+        NavigableSet<Question> byAuthor = username == null ? null : authorIndex.get(username);
+        if (byAuthor == null) {
+            return new QuestionPage(new ArrayList<>(), null);
+        }
+        return page(byAuthor, afterCursor, limit, unresolvedOnly);
+    }
+    
+    /**
+     * Walks an index from the cursor until the page is full.
+     * One extra matching question is looked at to find out whether another page exists.
+     */
+    private QuestionPage page(NavigableSet<Question> index, QuestionPage.Cursor afterCursor,
+                              int limit, boolean unresolvedOnly) {
+        List<Question> pageQuestions = new ArrayList<>();
+        if (limit <= 0) {
+            return new QuestionPage(pageQuestions, null);
+        }
+        
+        Iterable<Question> remaining = index;
+        if (afterCursor != null) {
+            remaining = index.tailSet(cursorKey(afterCursor), false);
+        }
+        
+        for (Question q : remaining) {
+            if (unresolvedOnly && q.isResolved()) {
+                continue;
+            }
+            if (pageQuestions.size() == limit) {
+                return new QuestionPage(pageQuestions, QuestionPage.Cursor.after(pageQuestions.get(limit - 1)));
+            }
+            pageQuestions.add(q);
+        }
+        return new QuestionPage(pageQuestions, null);
+    }
+    
+    /**
+     * Maps a listing filter name to its secondary index.
+     * Unknown filters list every question.
+     */
+    private NavigableSet<Question> indexForFilter(String filter) {
+        if (filter == null) {
+            return recencyIndex;
+        }
+        switch (filter.toLowerCase()) {
+            case "unresolved":
+                return unresolvedIndex;
+            case "resolved":
+                return resolvedIndex;
+            case "answered":
+                return answeredIndex;
+            case "unanswered":
+                return unansweredIndex;
+            default:
+                return recencyIndex;
+        }
+    }
+    
+    /**
+     * Builds a placeholder question that sorts exactly where the cursor points,
+     * used as the search key into the ordered indexes. Its metadata is a detached
+     * location of plain fields, so no store is created per page.
+     */
+    private static Question cursorKey(QuestionPage.Cursor cursor) {
+        return new Question(cursor.getQuestionId(), null, null, null,
+                            cursor.getCreatedAt(), cursor.getCreatedAt(), false, null, 0, 0);
     }
     
     /**
      * Searches questions by keywords in title or body.
      * Case-insensitive search that matches any keyword in the query.
+     * Matches are looked up in the search index instead of scanning every question.
+     * Queries may also use AND, NOT or -word, "quoted phrases" and title:, body: or
+     * author: fields (see QueryParser).
      * 
      * searchQuery The search keywords (max 150 characters)
      * return List of matching questions
      */
     public List<Question> searchQuestions(String searchQuery) {
+        return searchQuestions(searchQuery, false);
+    }
+    
+    /**
+     * Searches questions by keywords in title or body, optionally tolerating typos.
+     * In fuzzy mode a keyword also matches words a typo or two away from it
+     * (e.g. "ArrayLsit" finds "ArrayList").
+     * 
+     * searchQuery The search keywords (max 150 characters)
+     * fuzzy true to tolerate misspelled keywords
+     * return List of matching questions
+     */
+    public List<Question> searchQuestions(String searchQuery, boolean fuzzy) {
+        return searchQuestions(searchQuery, fuzzy, SearchIndex.StatusFilter.ALL);
+    }
+    
+    /**
+     * Searches the index for questions matching a query and passing a status filter.
+     * Only questions passing the filter are ever looked up and sorted.
+     * 
+     * searchQuery The search keywords (max 150 characters)
+     * fuzzy true to tolerate misspelled keywords
+     * filter The status filter, applied inside the index
+     * return List of matching questions, most recent first
+     */
+    private List<Question> searchQuestions(String searchQuery, boolean fuzzy, SearchIndex.StatusFilter filter) {
         if (searchQuery == null || searchQuery.trim().isEmpty()) {
             return new ArrayList<>();
         }
@@ -208,26 +481,113 @@ public class Questions {
             return new ArrayList<>();
         }
         
-        String queryLower = searchQuery.toLowerCase().trim();
-        String[] keywords = queryLower.split("\\s+");
-        
-        return questionsMap.values().stream()
-                .filter(q -> {
-                    String titleLower = q.getTitle().toLowerCase();
-                    String bodyLower = q.getBody().toLowerCase();
-                    
-                    // Check if any keyword matches title or body
-                    for (String keyword : keywords) {
-                        if (titleLower.contains(keyword) || bodyLower.contains(keyword)) {
-                            return true;
-                        }
-                    }
-                    return false;
-                })
-                .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
+        ShardedSearchIndex index = searchIndex;
+        QueryParser.Node query = new QueryParser(index.getAnalyzer()).parse(searchQuery);
+        if (query == null) {
+            return new ArrayList<>();
+        }
+        
+        // Plain keywords: union of the posting lists of every term containing a keyword,
+        // intersected with the filter. Boolean queries are planned clause by clause.
+        Set<String> ids = query.isKeywordList()
+                ? index.search(keywords(query), fuzzy, filter)
+                : index.search(query, fuzzy, filter);
+        return ids.stream()
+                .map(questionsMap::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingLong(Question::getCreatedAtMillis).reversed())
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Searches questions by keywords and returns the best matches ranked by relevance
+     * (BM25 over title and body, with title matches weighted more heavily).
+     * 
+     * searchQuery The search keywords (max 150 characters)
+     * filter Filter option: "all", "unresolved", "answered", "unanswered"
+     * limit Maximum number of questions to return (e.g. 50)
+     * return Up to limit matching questions, most relevant first
+     */
+    public List<Question> searchQuestionsByRelevance(String searchQuery, String filter, int limit) {
+        return searchQuestionsByRelevance(searchQuery, filter, limit, false);
+    }
+    
+    /**
+     * Relevance search that can tolerate typos.
+     * Questions matched only through a misspelled keyword rank below exact matches.
+     * 
+     * searchQuery The search keywords (max 150 characters)
+     * filter Filter option: "all", "unresolved", "answered", "unanswered"
+     * limit Maximum number of questions to return (e.g. 50)
+     * fuzzy true to tolerate misspelled keywords
+     * return Up to limit matching questions, most relevant first
+     */
+    public List<Question> searchQuestionsByRelevance(String searchQuery, String filter, int limit, boolean fuzzy) {
+        if (searchQuery == null || searchQuery.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // Validate search query length
+        if (searchQuery.length() > Question.getMaxTitleLength()) {
+            return new ArrayList<>();
+        }
+        
+        ShardedSearchIndex index = searchIndex;
+        QueryParser.Node query = new QueryParser(index.getAnalyzer()).parse(searchQuery);
+        if (query == null) {
+            return new ArrayList<>();
+        }
+        
+        String[] keywords = keywords(query);
+        SearchIndex.StatusFilter statusFilter = SearchIndex.StatusFilter.fromName(filter);
+        if (query.isKeywordList()) {
+            return index.searchRanked(keywords, fuzzy, limit, statusFilter)
+                    .stream()
+                    .map(questionsMap::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+        
+        // Boolean query: rank its matches by their positive keywords; matches without
+        // any (e.g. found only through an author: clause) follow, most recent first
+        Set<String> matches = index.search(query, fuzzy, statusFilter);
+        List<String> ranked = index.searchRanked(keywords, fuzzy, limit, statusFilter, matches::contains);
+        List<Question> results = new ArrayList<>();
+        for (String id : ranked) {
+            Question question = questionsMap.get(id);
+            if (question != null) {
+                results.add(question);
+            }
+        }
+        if (results.size() < limit) {
+            Set<String> rankedIds = new HashSet<>(ranked);
+            matches.stream()
+                    .filter(id -> !rankedIds.contains(id))
+                    .map(questionsMap::get)
+                    .filter(Objects::nonNull)
+                    .sorted(MOST_RECENT_FIRST)
+                    .limit(limit - results.size())
+                    .forEach(results::add);
+        }
+        return results;
+    }
+    
+    /**
+     * Explains why each search result matched: highlight ranges in its title and the
+     * part of its body with the most matching words. Uses the term offsets stored in
+     * the search index, so the questions' text is not searched again.
+     * 
+     * results Questions returned by a search with the same query
+     * searchQuery The search keywords
+     * fuzzy true if the search tolerated misspelled keywords
+     * return One hit per result, in the same order
+     */
+    public List<SearchHit> highlightMatches(List<Question> results, String searchQuery, boolean fuzzy) {
+        ShardedSearchIndex index = searchIndex;
+        QueryParser.Node query = new QueryParser(index.getAnalyzer()).parse(searchQuery);
+        return index.highlight(results, query == null ? new String[0] : keywords(query), fuzzy);
+    }
+    
     /**
      * Searches questions by keywords with additional filter.
      * 
@@ -236,27 +596,418 @@ public class Questions {
      * return List of matching questions with filter applied
      */
     public List<Question> searchQuestionsWithFilter(String searchQuery, String filter) {
-        List<Question> searchResults = searchQuestions(searchQuery);
+        return searchQuestionsWithFilter(searchQuery, filter, false);
+    }
+    
+    /**
+     * Searches questions by keywords with additional filter, optionally tolerating typos.
+     * Results are cached by normalized query, filter and mode; a cached result is reused
+     * until a question is added, edited, deleted, answered or resolved.
+     * 
+     * searchQuery The search keywords
+     * filter Filter option: "all", "unresolved", "answered", "unanswered"
+     * fuzzy true to tolerate misspelled keywords
+     * return List of matching questions with filter applied
+     */
+    public List<Question> searchQuestionsWithFilter(String searchQuery, String filter, boolean fuzzy) {
+        SearchIndex.StatusFilter statusFilter = SearchIndex.StatusFilter.fromName(filter);
+        if (searchQuery == null) {
+            return new ArrayList<>();
+        }
         
-        if (filter == null || filter.equalsIgnoreCase("all")) {
-            return searchResults;
+        // Same key for queries parsed to the same clauses (differing only in case,
+        // spacing, stopwords or word endings)
+        QueryParser.Node query = new QueryParser(searchIndex.getAnalyzer()).parse(searchQuery);
+        String key = query + "|" + statusFilter + "|" + fuzzy;
+        
+        // Read the version before searching, so a change made meanwhile makes the result stale
+        long version = searchVersion.get();
+        List<Question> cached = searchCache.get(key, version);
+        if (cached != null) {
+            return cached;
+        }
+        List<Question> results = searchQuestions(searchQuery, fuzzy, statusFilter);
+        searchCache.put(key, version, results);
+        return results;
+    }
+    
+    /**
+     * Gets the cache in front of searchQuestionsWithFilter, e.g. to read its hit rate.
+     * 
+     * return The search result cache
+     */
+    public SearchResultCache<Question> getSearchCache() {
+        return searchCache;
+    }
+    
+    /**
+     * Suggests completions for the word being typed at the end of a partial query,
+     * taken from the words of question titles (used for search-as-you-type).
+     * 
+     * partialQuery The text typed so far
+     * limit Maximum number of suggestions to return
+     * return The partial query with its last word completed, most common completion first
+     */
+    public List<String> suggestCompletions(String partialQuery, int limit) {
+        if (partialQuery == null || partialQuery.length() > Question.getMaxTitleLength() ||
+            partialQuery.isEmpty() || Character.isWhitespace(partialQuery.charAt(partialQuery.length() - 1))) {
+            return new ArrayList<>();
         }
         
-        switch (filter.toLowerCase()) {
-            case "unresolved":
-                return searchResults.stream()
-                        .filter(q -> !q.isResolved())
-                        .collect(Collectors.toList());
-            case "answered":
-                return searchResults.stream()
-                        .filter(q -> q.getTotalAnswers() > 0)
-                        .collect(Collectors.toList());
-            case "unanswered":
-                return searchResults.stream()
-                        .filter(q -> q.getTotalAnswers() == 0)
-                        .collect(Collectors.toList());
-            default:
-                return searchResults;
+        List<String> words = TitlePrefixIndex.tokenize(partialQuery);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // Lowercasing can change the length (e.g. "İ"), so find where the last word starts
+        // in the original, with the same word characters as tokenize
+        String prefix = words.get(words.size() - 1);
+        int start = partialQuery.length();
+        while (start > 0 && TitlePrefixIndex.isWordChar(partialQuery.codePointBefore(start))) {
+            start -= Character.charCount(partialQuery.codePointBefore(start));
+        }
+        String typed = partialQuery.substring(0, start);
+        
+        return titleIndex.complete(prefix, limit).stream()
+                .map(word -> typed + word)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Finds the most recent questions whose title has, for every word of a partial
+     * query, a word starting with it (used for search-as-you-type).
+     * 
+     * partialQuery The text typed so far
+     * limit Maximum number of questions to return
+     * return Up to limit matching questions, most recent first
+     */
+    public List<Question> suggestQuestions(String partialQuery, int limit) {
+        if (partialQuery == null || partialQuery.length() > Question.getMaxTitleLength() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        
+        List<String> words = TitlePrefixIndex.tokenize(partialQuery);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // Intersect the matches of every word, starting from the smallest set
+        List<Set<String>> matches = new ArrayList<>();
+        for (String word : new LinkedHashSet<>(words)) {
+            matches.add(titleIndex.findQuestions(word));
+        }
+        matches.sort(Comparator.comparingInt(Set::size));
+        Set<String> ids = matches.get(0);
+        for (int i = 1; i < matches.size() && !ids.isEmpty(); i++) {
+            ids.retainAll(matches.get(i));
+        }
+        
+        // Keep the `limit` most recent; the heap's head is the oldest of them
+        PriorityQueue<Question> newest = new PriorityQueue<>(limit + 1, MOST_RECENT_FIRST.reversed());
+        for (String id : ids) {
+            Question question = questionsMap.get(id);
+            if (question == null) {
+                continue;
+            }
+            newest.add(question);
+            if (newest.size() > limit) {
+                newest.poll();
+            }
+        }
+        
+        Question[] suggestions = new Question[newest.size()];
+        for (int i = suggestions.length - 1; i >= 0; i--) {
+            suggestions[i] = newest.poll();
+        }
+        return Arrays.asList(suggestions);
+    }
+    
+    // The positive terms of a parsed query, used to rank and highlight its matches
+    private static String[] keywords(QueryParser.Node query) {
+        return query.getKeywords().toArray(new String[0]);
+    }
+    
+    //Duplicate Detection
+    
+    /**
+     * Checks whether a question with the same title and body has already been posted.
+     * Titles and bodies are compared ignoring case and extra whitespace.
+     * Looks up a single hash bucket, so the check does not grow with the number of questions.
+     * 
+     * title The title of the new question
+     * body The body of the new question
+     * return true if an equivalent question exists, false otherwise
+     */
+    public boolean isDuplicate(String title, String body) {
+        return findDuplicate(title, body, null) != null;
+    }
+    
+    /**
+     * Finds an existing question with the same title and body, ignoring one question
+     * (so a question being edited does not count as a duplicate of itself).
+     * 
+     * title The title to check
+     * body The body to check
+     * excludeQuestionId ID of a question to ignore, or null
+     * return An equivalent question, or null if there is none
+     */
+    public Question findDuplicate(String title, String body, String excludeQuestionId) {
+        Set<String> candidates = contentIndex.get(ContentHash.of(title, body));
+        if (candidates == null) {
+            return null;
+        }
+        
+        // Confirm the match, since different texts can share a hash
+        for (String questionId : candidates) {
+            Question question = questionsMap.get(questionId);
+            if (question != null && !questionId.equals(excludeQuestionId) &&
+                ContentHash.sameContent(question.getTitle(), title) &&
+                ContentHash.sameContent(question.getBody(), body)) {
+                return question;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Turns near-duplicate detection on or off.
+     * Enabling it indexes every existing question; disabling it drops the index.
+     * 
+     * enabled true to keep a near-duplicate index of all questions
+     */
+    public void setNearDuplicateDetection(boolean enabled) {
+        locks.lockAll();
+        try {
+            if (!enabled) {
+                nearDuplicates = null;
+            } else if (nearDuplicates == null) {
+                NearDuplicateDetector detector = new NearDuplicateDetector();
+                for (Question question : questionsMap.values()) {
+                    detector.addQuestion(question);
+                }
+                nearDuplicates = detector;
+            }
+        } finally {
+            locks.unlockAll();
+        }
+    }
+    
+    public boolean isNearDuplicateDetectionEnabled() {
+        return nearDuplicates != null;
+    }
+    
+    /**
+     * Splits the search index into shards by question ID, so each search fans out to
+     * the shards in parallel and merges their results. Rebuilds the index.
+     * Worth it for large collections on machines with several cores; 1 (the default)
+     * keeps a single index searched on the calling thread.
+     * 
+     * shardCount Number of shards (at least 1)
+     */
+    public void setSearchShards(int shardCount) {
+        locks.lockAll();
+        try {
+            ShardedSearchIndex index = new ShardedSearchIndex(shardCount, searchIndex.getAnalyzer());
+            for (Question question : questionsMap.values()) {
+                index.addQuestion(question);
+            }
+            searchIndex = index;
+        } finally {
+            locks.unlockAll();
+        }
+    }
+    
+    public int getSearchShards() {
+        return searchIndex.getShardCount();
+    }
+    
+    /**
+     * Changes how question text and search queries are split into terms, e.g. back to
+     * the WhitespaceAnalyzer for plain substring matching. Rebuilds the index and
+     * drops cached search results.
+     * 
+     * analyzer The analyzer to index and search with
+     */
+    public void setAnalyzer(Analyzer analyzer) {
+        locks.lockAll();
+        try {
+            ShardedSearchIndex index = new ShardedSearchIndex(searchIndex.getShardCount(), analyzer);
+            for (Question question : questionsMap.values()) {
+                index.addQuestion(question);
+            }
+            searchIndex = index;
+            searchCache.clear();
+            searchVersion.incrementAndGet();
+        } finally {
+            locks.unlockAll();
+        }
+    }
+    
+    public Analyzer getAnalyzer() {
+        return searchIndex.getAnalyzer();
+    }
+    
+    /**
+     * Finds existing questions worded similarly to a new title and body
+     * (e.g. the same question asked with slightly different words).
+     * Only questions sharing a locality-sensitive hash bucket with the new text are compared.
+     * 
+     * title The title of the new question
+     * body The body of the new question
+     * limit Maximum number of questions to return
+     * return Similar questions, most similar first (empty if detection is disabled)
+     */
+    public List<Question> findSimilarQuestions(String title, String body, int limit) {
+        NearDuplicateDetector detector = nearDuplicates;
+        if (detector == null) {
+            return new ArrayList<>();
+        }
+        
+        return detector.findSimilar(title, body, NearDuplicateDetector.DEFAULT_MIN_SIMILARITY, limit).stream()
+                .map(questionsMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
+    //Secondary Index Maintenance
+    
+    /**
+     * Adds a question to the recency, status, author and duplicate indexes
+     * according to its current state.
+     * 
+     * question The question to index
+     */
+    private void addToIndexes(Question question) {
+        recencyIndex.add(question);
+        (question.isResolved() ? resolvedIndex : unresolvedIndex).add(question);
+        (question.getTotalAnswers() > 0 ? answeredIndex : unansweredIndex).add(question);
+        if (question.getAuthor() != null) {
+            // compute() is atomic per author, so a concurrent removal cannot drop this set
+            authorIndex.compute(question.getAuthor(), (author, byAuthor) -> {
+                if (byAuthor == null) {
+                    byAuthor = new ConcurrentSkipListSet<>(MOST_RECENT_FIRST);
+                }
+                byAuthor.add(question);
+                return byAuthor;
+            });
+        }
+        
+        String questionId = question.getQuestionId();
+        long hash = ContentHash.of(question.getTitle(), question.getBody());
+        contentHashes.put(questionId, hash);
+        contentIndex.compute(hash, (h, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(questionId);
+            return ids;
+        });
+        
+        NearDuplicateDetector detector = nearDuplicates;
+        if (detector != null) {
+            detector.addQuestion(question);
+        }
+        
+        int status = statusOf(question);
+        countedStatus.put(questionId, status);
+        adjustCounts(question.getAuthor(), status, 1);
+    }
+    
+    /**
+     * Removes a question from every secondary index.
+     * The question is removed from both sides of each status pair because its
+     * status may have changed since it was indexed.
+     * 
+     * question The question to unindex (may be null)
+     */
+    private void removeFromIndexes(Question question) {
+        if (question == null) {
+            return;
+        }
+        recencyIndex.remove(question);
+        resolvedIndex.remove(question);
+        unresolvedIndex.remove(question);
+        answeredIndex.remove(question);
+        unansweredIndex.remove(question);
+        
+        if (question.getAuthor() != null) {
+            authorIndex.computeIfPresent(question.getAuthor(), (author, byAuthor) -> {
+                byAuthor.remove(question);
+                return byAuthor.isEmpty() ? null : byAuthor;
+            });
+        }
+        
+        String questionId = question.getQuestionId();
+        Long hash = contentHashes.remove(questionId);
+        if (hash != null) {
+            contentIndex.computeIfPresent(hash, (h, ids) -> {
+                ids.remove(questionId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        
+        NearDuplicateDetector detector = nearDuplicates;
+        if (detector != null) {
+            detector.removeQuestion(questionId);
+        }
+        
+        Integer status = countedStatus.remove(questionId);
+        if (status != null) {
+            adjustCounts(question.getAuthor(), status, -1);
+        }
+    }
+    
+    /**
+     * Moves a question whose resolved status or answer count changed in place to
+     * the right status indexes and counts. Called by the question itself.
+     * 
+     * question The question that changed
+     */
+    private void statusChanged(Question question) {
+        String questionId = question.getQuestionId();
+        ReentrantLock lock = locks.lockFor(questionId);
+        lock.lock();
+        try {
+            // Ignore questions that were deleted or replaced in the meantime
+            if (questionsMap.get(questionId) != question) {
+                return;
+            }
+            Integer previous = countedStatus.get(questionId);
+            int status = statusOf(question);
+            if (previous != null && previous == status) {
+                return;
+            }
+            
+            resolvedIndex.remove(question);
+            unresolvedIndex.remove(question);
+            answeredIndex.remove(question);
+            unansweredIndex.remove(question);
+            (question.isResolved() ? resolvedIndex : unresolvedIndex).add(question);
+            (question.getTotalAnswers() > 0 ? answeredIndex : unansweredIndex).add(question);
+            searchIndex.updateStatus(question);
+            searchVersion.incrementAndGet();
+            
+            if (previous != null) {
+                adjustCounts(question.getAuthor(), previous, -1);
+            }
+            countedStatus.put(questionId, status);
+            adjustCounts(question.getAuthor(), status, 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static int statusOf(Question question) {
+        return (question.isResolved() ? RESOLVED_BIT : 0) | (question.getTotalAnswers() > 0 ? ANSWERED_BIT : 0);
+    }
+    
+    // Adds (delta = 1) or removes (delta = -1) one question with a status from the counts
+    private void adjustCounts(String author, int status, int delta) {
+        boolean resolved = (status & RESOLVED_BIT) != 0;
+        boolean answered = (status & ANSWERED_BIT) != 0;
+        counts.adjust(resolved, answered, delta);
+        if (author != null) {
+            countsByAuthor.computeIfAbsent(author, a -> new FacetCounts()).adjust(resolved, answered, delta);
         }
     }
    
@@ -271,6 +1022,119 @@ public class Questions {
         return questionsMap.size();
     }
     
+    //Body Storage
+    
+    /**
+     * Keeps question bodies in a disk-backed body store instead of in memory, or
+     * (with null) brings them back into memory. Existing questions are moved too.
+     * Bodies are then loaded on demand by getBody, with recently read ones cached.
+     * 
+     * bodies The store to keep bodies in, or null to keep them in memory
+     */
+    public void setBodyStore(BodyStore bodies) {
+        locks.lockAll();
+        try {
+            bodyStore = bodies;
+            for (Question question : questionsMap.values()) {
+                if (bodies == null) {
+                    question.keepBodyInMemory();
+                } else {
+                    question.moveBodyTo(bodies);
+                }
+            }
+        } finally {
+            locks.unlockAll();
+        }
+    }
+    
+    public BodyStore getBodyStore() {
+        return bodyStore;
+    }
+    
+    // Called with the question's stripe lock held
+    private void moveBody(Question question) {
+        BodyStore bodies = bodyStore;
+        if (bodies != null) {
+            question.moveBodyTo(bodies);
+        }
+    }
+    
+    //Facet Counts
+    
+    /**
+     * Gets the number of questions in each filter without building the filtered lists.
+     * Counts follow adds, deletes, edits, and questions being resolved or answered.
+     * 
+     * return Snapshot of the total, resolved, unresolved, answered and unanswered counts
+     */
+    public FacetCounts getCounts() {
+        return counts.snapshot();
+    }
+    
+    /**
+     * Gets the number of one author's questions in each filter.
+     * 
+     * username The author's username
+     * return Snapshot of the author's counts (all zero for unknown authors)
+     */
+    public FacetCounts getCountsByAuthor(String username) {
+        FacetCounts byAuthor = username == null ? null : countsByAuthor.get(username);
+        return byAuthor == null ? new FacetCounts() : byAuthor.snapshot();
+    }
+    
+    public int getResolvedCount() {
+        return counts.getResolved();
+    }
+    
+    public int getUnresolvedCount() {
+        return counts.getUnresolved();
+    }
+    
+    public int getAnsweredCount() {
+        return counts.getAnswered();
+    }
+    
+    public int getUnansweredCount() {
+        return counts.getUnanswered();
+    }
+    
+    /**
+     * Gets the columnar store holding this collection's question metadata,
+     * for scans that read the columns directly.
+     * 
+     * return The collection's store
+     */
+    QuestionStore getStore() {
+        return store;
+    }
+    
+    /**
+     * Consistency check: recounts every question in one scan of the store's columns, in
+     * parallel chunks, and compares the result with the maintained counts, overall and
+     * per author. Only meaningful while no other thread is changing the collection.
+     * 
+     * return Descriptions of the mismatches found (empty if the counts are consistent)
+     */
+    public List<String> verifyCounts() {
+        FacetCounts overall = new FacetCounts();
+        Map<String, FacetCounts> recounted = store.countByAuthor(overall);
+        
+        List<String> mismatches = new ArrayList<>();
+        if (!overall.equals(counts)) {
+            mismatches.add("overall: counted " + counts + ", actual " + overall);
+        }
+        Set<String> authors = new HashSet<>(recounted.keySet());
+        authors.addAll(countsByAuthor.keySet());
+        for (String author : authors) {
+            FacetCounts actual = recounted.getOrDefault(author, new FacetCounts());
+            FacetCounts counted = getCountsByAuthor(author);
+            if (!actual.equals(counted)) {
+                mismatches.add(author + ": counted " + counted + ", actual " + actual);
+            }
+        }
+        return mismatches;
+    }
+    
     /**
      * Checks if a question exists in the collection.
      * 
@@ -278,7 +1142,7 @@ public class Questions {
      * return true if question exists, false otherwise
      */
     public boolean questionExists(String questionId) {
-        return questionsMap.containsKey(questionId);
+        return questionId != null && questionsMap.containsKey(questionId);
     }
     
     /**
@@ -286,15 +1150,44 @@ public class Questions {
      * Used primarily for testing purposes.
      */
     public void clearAllQuestions() {
-        questionsMap.clear();
+        locks.lockAll();
+        try {
+            for (Question question : questionsMap.values()) {
+                question.clearStatusListener(statusListener);
+                question.detachFrom(store);
+            }
+            questionsMap.clear();
+            store.clear();
+            searchIndex.clear();
+            titleIndex.clear();
+            recencyIndex.clear();
+            resolvedIndex.clear();
+            unresolvedIndex.clear();
+            answeredIndex.clear();
+            unansweredIndex.clear();
+            authorIndex.clear();
+            contentIndex.clear();
+            contentHashes.clear();
+            if (nearDuplicates != null) {
+                nearDuplicates.clear();
+            }
+            counts.reset();
+            countsByAuthor.clear();
+            countedStatus.clear();
+            snapshot.invalidate();
+            searchVersion.incrementAndGet();
+            searchCache.clear();
+        } finally {
+            locks.unlockAll();
+        }
     }
     
     @Override
     public String toString() {
         return "Questions{" +
                 "total=" + questionsMap.size() +
-                ", unresolved=" + getUnresolvedQuestions().size() +
-                ", answered=" + getAnsweredQuestions().size() +
+                ", unresolved=" + getUnresolvedCount() +
+                ", answered=" + getAnsweredCount() +
                 '}';
     }
 }
\ No newline at end of file
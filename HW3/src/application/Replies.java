@@ -1,123 +1,210 @@
 package application;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Replies class manages a collection of all replies in the Q&A system.
+ * Thread-safe: reads never take the stripe locks, and writers lock only the stripe
+ * of the answer whose reply list they change.
  */
 public class Replies {
     
+    private static final int LOCK_STRIPES = 64;
+    
+    // Newest first; ties broken by ID so replies posted at the same moment stay distinct
+    public static final Comparator<Reply> MOST_RECENT_FIRST =
+            Comparator.comparing(Reply::getCreatedAt).reversed()
+                    .thenComparing(Reply::getReplyID);
+    
     private Map<String, Reply> repliesMap;
-    private Map<String, List<String>> answerToRepliesMap;
+    // Per answer: its replies in posting order, unlinked in constant time on delete
+    private Map<String, ChildList<Reply>> answerToRepliesMap;
+    
+    // Per author: their replies, most recent first
+    private Map<String, NavigableSet<Reply>> authorIndex;
+    
+    // Per-answer striped locks guarding the answer -> replies lists
+    private StripedLocks locks;
+    
+    // Immutable copy of all replies, republished after changes
+    private final CollectionSnapshot<Reply> snapshot;
     
     public Replies() {
-        this.repliesMap = new HashMap<>();
-        this.answerToRepliesMap = new HashMap<>();
+        this.repliesMap = new ConcurrentHashMap<>();
+        this.answerToRepliesMap = new ConcurrentHashMap<>();
+        this.authorIndex = new ConcurrentHashMap<>();
+        this.locks = new StripedLocks(LOCK_STRIPES);
+        this.snapshot = new CollectionSnapshot<>(repliesMap.values(), locks);
     }
     
     // CREATE
     public boolean addReply(Reply reply) {
-        if (reply == null || reply.getReplyID() == null) {
-            return false;
-        }
-        if (repliesMap.containsKey(reply.getReplyID())) {
+        if (reply == null || reply.getReplyID() == null || reply.getAnswerID() == null) {
             return false;
         }
         
-        repliesMap.put(reply.getReplyID(), reply);
-        
         String answerId = reply.getAnswerID();
-        answerToRepliesMap.putIfAbsent(answerId, new ArrayList<>());
-        answerToRepliesMap.get(answerId).add(reply.getReplyID());
-        
-        return true;
+        ReentrantLock lock = locks.lockFor(answerId);
+        lock.lock();
+        try {
+            if (repliesMap.putIfAbsent(reply.getReplyID(), reply) != null) {
+                return false;
+            }
+            
+            // Readers get immutable views of the list, so they never lock
+            answerToRepliesMap.computeIfAbsent(answerId, id -> new ChildList<>(Reply::getReplyID, null))
+                    .add(reply);
+            addToAuthorIndex(reply);
+            snapshot.invalidate();
+            return true;
+        } finally {
+            lock.unlock();
+        }
     }
     
  // READ
     public Reply getReplyById(String replyId) {
-        return repliesMap.get(replyId);
+        return replyId == null ? null : repliesMap.get(replyId);
     }
     
+    // Immutable snapshot shared by every caller until the next change (copy it before sorting)
     public List<Reply> getAllReplies() {
-        return new ArrayList<>(repliesMap.values());
+        return snapshot.get();
+    }
+    
+    // Changes whenever a reply is added, replaced or deleted
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+    
+    // Stripes are keyed by answer ID; QuestionThreads holds them across collections
+    StripedLocks getLocks() {
+        return locks;
     }
     
     // UPDATE
     public boolean updateReply(Reply reply) {
-        if (reply == null || reply.getReplyID() == null) {
+        if (reply == null || reply.getReplyID() == null || reply.getAnswerID() == null) {
             return false;
         }
-        if (!repliesMap.containsKey(reply.getReplyID())) {
-            return false;
+        
+        // Locked like the other writers, so snapshots never see half of a change
+        ReentrantLock lock = locks.lockFor(reply.getAnswerID());
+        lock.lock();
+        try {
+            Reply previous = repliesMap.replace(reply.getReplyID(), reply);
+            if (previous == null) {
+                return false;
+            }
+            if (previous != reply) {
+                removeFromAuthorIndex(previous);
+                addToAuthorIndex(reply);
+            }
+            ChildList<Reply> list = answerToRepliesMap.get(reply.getAnswerID());
+            if (list != null) {
+                list.replace(reply);
+            }
+            snapshot.invalidate();
+            return true;
+        } finally {
+            lock.unlock();
         }
-        repliesMap.put(reply.getReplyID(), reply);
-        return true;
     }
     
     // DELETE
     public boolean deleteReply(String replyId) {
-        if (replyId == null || !repliesMap.containsKey(replyId)) {
+        if (replyId == null) {
             return false;
         }
         
         Reply reply = repliesMap.get(replyId);
+        if (reply == null) {
+            return false;
+        }
         String answerId = reply.getAnswerID();
         
-        repliesMap.remove(replyId);
-        
-        if (answerToRepliesMap.containsKey(answerId)) {
-            answerToRepliesMap.get(answerId).remove(replyId);
+        ReentrantLock lock = locks.lockFor(answerId);
+        lock.lock();
+        try {
+            if (repliesMap.remove(replyId) == null) {
+                return false;
+            }
+            removeFromAuthorIndex(reply);
+            snapshot.invalidate();
             
-            if (answerToRepliesMap.get(answerId).isEmpty()) {
-                answerToRepliesMap.remove(answerId);
+            ChildList<Reply> list = answerToRepliesMap.get(answerId);
+            if (list != null) {
+                list.remove(replyId);
+                
+                if (list.size() == 0) {
+                    answerToRepliesMap.remove(answerId);
+                }
             }
+            
+            return true;
+        } finally {
+            lock.unlock();
         }
-        
-        return true;
     }
     
+    //Read-only view in posting order (copy it before changing it)
     public List<Reply> getRepliesForAnswers(String answerId) {
-        if (answerId == null || !answerToRepliesMap.containsKey(answerId)) {
+        ChildList<Reply> list = answerId == null ? null : answerToRepliesMap.get(answerId);
+        return list == null ? Collections.emptyList() : list.view();
+    }
+    
+    //Get a user's replies, most recent first, in time proportional to their replies
+    public List<Reply> getRepliesByAuthor(String username) {
+        if (username == null || username.trim().isEmpty()) {
             return new ArrayList<>();
         }
-        
-        List<String> replyIds = answerToRepliesMap.get(answerId);
-        List<Reply> replies = new ArrayList<>();
-        
-        for (String replyId : replyIds) {
-            Reply reply = repliesMap.get(replyId);
-            if (reply != null) {
-                replies.add(reply);
-            }
-        }
-        return replies; 
+        return new ArrayList<>(authorIndex.getOrDefault(username, Collections.emptyNavigableSet()));
+    }
+    
+    public int getReplyCountByAuthor(String username) {
+        NavigableSet<Reply> byAuthor = username == null ? null : authorIndex.get(username);
+        return byAuthor == null ? 0 : byAuthor.size();
     }
     
     //Get count of replies for each answer
     public int getReplyCountForAnswer(String answerId) {
-        if (answerId == null || !answerToRepliesMap.containsKey(answerId)) {
-            return 0;
-        }
-        return answerToRepliesMap.get(answerId).size();
+        ChildList<Reply> list = answerId == null ? null : answerToRepliesMap.get(answerId);
+        return list == null ? 0 : list.size();
     }
     
     //Delete all replies for a specific answer
     
     public int deleteAllRepliesForAnswer(String answerId) {
-        if (answerId == null || !answerToRepliesMap.containsKey(answerId)) {
+        if (answerId == null) {
             return 0;
         }
-        List<String> replyIds = new ArrayList<>(answerToRepliesMap.get(answerId));
-        int deletedCount = 0;
         
-        for (String replyId : replyIds) {
-            if (deleteReply(replyId)) {
-                deletedCount++;
+        ReentrantLock lock = locks.lockFor(answerId);
+        lock.lock();
+        try {
+            // The whole list is dropped at once; only the per-reply maps are visited
+            ChildList<Reply> list = answerToRepliesMap.remove(answerId);
+            if (list == null) {
+                return 0;
             }
+            
+            int deletedCount = 0;
+            for (Reply listed : list.view()) {
+                Reply reply = repliesMap.remove(listed.getReplyID());
+                if (reply != null) {
+                    removeFromAuthorIndex(reply);
+                    deletedCount++;
+                }
+            }
+            snapshot.invalidate();
+            
+            return deletedCount;
+        } finally {
+            lock.unlock();
         }
-        
-        return deletedCount;
     }
     
     public int getReplyCount() {
@@ -125,12 +212,45 @@ public class Replies {
     }
     
     public boolean replyExists(String replyId) {
-        return repliesMap.containsKey(replyId);
+        return replyId != null && repliesMap.containsKey(replyId);
     }
     
     public void clearAllReplies() {
-        repliesMap.clear();
-        answerToRepliesMap.clear();
+        locks.lockAll();
+        try {
+            repliesMap.clear();
+            answerToRepliesMap.clear();
+            authorIndex.clear();
+            snapshot.invalidate();
+        } finally {
+            locks.unlockAll();
+        }
+    }
+    
+    // Called with the answer's stripe lock held. compute() is atomic per author, so a
+    // writer on another stripe removing the author's last reply cannot drop this set.
+    private void addToAuthorIndex(Reply reply) {
+        if (reply.getAuthor() == null) {
+            return;
+        }
+        authorIndex.compute(reply.getAuthor(), (author, byAuthor) -> {
+            if (byAuthor == null) {
+                byAuthor = new ConcurrentSkipListSet<>(MOST_RECENT_FIRST);
+            }
+            byAuthor.add(reply);
+            return byAuthor;
+        });
+    }
+    
+    // Called with the answer's stripe lock held
+    private void removeFromAuthorIndex(Reply reply) {
+        if (reply.getAuthor() == null) {
+            return;
+        }
+        authorIndex.computeIfPresent(reply.getAuthor(), (author, byAuthor) -> {
+            byAuthor.remove(reply);
+            return byAuthor.isEmpty() ? null : byAuthor;
+        });
     }
     
     @Override
@@ -1,5 +1,6 @@
 package application;
 
+import java.time.LocalDateTime;
 import java.util.UUID; ;
 
 public class Reply {
@@ -10,6 +11,7 @@ public class Reply {
 	private String answerID; 
 	private String content;
 	private String author; 
+	private LocalDateTime createdAt; 
 	
 	 //Constructor for creating a new reply to an answer and unique ID generation
 	public Reply(String answerID, String content, String author) {
@@ -17,14 +19,25 @@ public class Reply {
 		this.answerID = answerID; 
 		this.content = content; 
 		this.author = author; 
+		this.createdAt = LocalDateTime.now(); 
 		
 	}
 	
+	//Constructor for loading an existing reply from storage
+	public Reply(String replyID, String answerID, String content, String author, LocalDateTime createdAt) {
+		this.replyID = replyID; 
+		this.answerID = answerID; 
+		this.content = content; 
+		this.author = author; 
+		this.createdAt = createdAt; 
+	}
+	
 	//Getters for answer replies class
 	public String getReplyID() { return replyID; }
 	public String getAnswerID() { return answerID; }
 	public String getContent() { return content; }
 	public String getAuthor() { return author; }
+	public LocalDateTime getCreatedAt() { return createdAt; }
 	
 	//Setter with validation
 	public boolean setContent(String content) {
@@ -0,0 +1,190 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Our SearchHit class describes why a question matched a search: where the keywords
+ * occur in its title, and the part of its body with the most matches (the snippet)
+ * together with where the keywords occur in that snippet.
+ *
+ * Match positions come from the offsets stored in the search index, so building a hit
+ * never rescans the question's text; choosing the snippet costs one pass over at most
+ * a fixed number of matches.
+ */
+public class SearchHit {
+
+    // Characters of body text shown in a snippet
+    public static final int SNIPPET_LENGTH = 160;
+
+    // How far the snippet start may move back to begin at a word boundary
+    private static final int WORD_BOUNDARY_SLACK = 20;
+
+    private static final String ELLIPSIS = "…";
+
+    private final Question question;
+    private final List<Range> titleHighlights;
+    private final String snippet;
+    private final List<Range> snippetHighlights;
+
+    private SearchHit(Question question, List<Range> titleHighlights, String snippet, List<Range> snippetHighlights) {
+        this.question = question;
+        this.titleHighlights = Collections.unmodifiableList(titleHighlights);
+        this.snippet = snippet;
+        this.snippetHighlights = Collections.unmodifiableList(snippetHighlights);
+    }
+
+    /**
+     * Builds a hit from the match ranges found in a question's title and body.
+     *
+     * question The matching question
+     * titleMatches Ranges of the title that matched, in any order (may overlap)
+     * bodyMatches Ranges of the body that matched, in any order (may overlap)
+     * return The hit, with the best snippet of the body
+     */
+    public static SearchHit of(Question question, List<Range> titleMatches, List<Range> bodyMatches) {
+        String title = question.getTitle() == null ? "" : question.getTitle();
+        String body = question.getBody() == null ? "" : question.getBody();
+        List<Range> titleHighlights = merge(titleMatches, title.length());
+        List<Range> bodyHighlights = merge(bodyMatches, body.length());
+
+        if (body.length() <= SNIPPET_LENGTH) {
+            return new SearchHit(question, titleHighlights, body, bodyHighlights);
+        }
+
+        // Slide a window over the sorted matches and keep the one containing the most
+        int bestFirst = 0;
+        int bestCount = 0;
+        int last = 0;
+        for (int first = 0; first < bodyHighlights.size(); first++) {
+            int windowEnd = bodyHighlights.get(first).start + SNIPPET_LENGTH;
+            last = Math.max(last, first);
+            while (last < bodyHighlights.size() && bodyHighlights.get(last).end <= windowEnd) {
+                last++;
+            }
+            if (last - first > bestCount) {
+                bestCount = last - first;
+                bestFirst = first;
+            }
+        }
+
+        int start = bestCount == 0 ? 0 : bodyHighlights.get(bestFirst).start;
+        // Show a little context before the first match, starting at a word
+        start = Math.max(0, start - WORD_BOUNDARY_SLACK);
+        if (start > 0) {
+            int space = body.indexOf(' ', start);
+            start = space < 0 || space >= start + WORD_BOUNDARY_SLACK ? start : space + 1;
+        }
+        int end = Math.min(body.length(), start + SNIPPET_LENGTH);
+
+        String prefix = start > 0 ? ELLIPSIS : "";
+        String suffix = end < body.length() ? ELLIPSIS : "";
+        List<Range> snippetHighlights = new ArrayList<>();
+        for (Range range : bodyHighlights) {
+            if (range.start >= start && range.end <= end) {
+                snippetHighlights.add(new Range(range.start - start + prefix.length(), range.end - start + prefix.length()));
+            }
+        }
+        return new SearchHit(question, titleHighlights, prefix + body.substring(start, end) + suffix, snippetHighlights);
+    }
+
+    public Question getQuestion() {
+        return question;
+    }
+
+    /**
+     * Gets the ranges of the title to highlight, sorted and not overlapping.
+     *
+     * return Title highlight ranges
+     */
+    public List<Range> getTitleHighlights() {
+        return titleHighlights;
+    }
+
+    /**
+     * Gets the part of the body with the most matches, with an ellipsis where it was cut.
+     *
+     * return The snippet text
+     */
+    public String getSnippet() {
+        return snippet;
+    }
+
+    /**
+     * Gets the ranges of the snippet to highlight, sorted and not overlapping.
+     *
+     * return Snippet highlight ranges
+     */
+    public List<Range> getSnippetHighlights() {
+        return snippetHighlights;
+    }
+
+    // Sorts ranges, clips them to the text and joins overlapping ones
+    private static List<Range> merge(List<Range> ranges, int textLength) {
+        List<Range> sorted = new ArrayList<>(ranges);
+        sorted.sort((a, b) -> a.start != b.start ? Integer.compare(a.start, b.start) : Integer.compare(a.end, b.end));
+
+        List<Range> merged = new ArrayList<>();
+        for (Range range : sorted) {
+            int start = Math.min(range.start, textLength);
+            int end = Math.min(range.end, textLength);
+            if (start >= end) {
+                continue;
+            }
+            Range previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (previous != null && start <= previous.end) {
+                merged.set(merged.size() - 1, new Range(previous.start, Math.max(previous.end, end)));
+            } else {
+                merged.add(new Range(start, end));
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHit{" +
+                "questionId='" + question.getQuestionId() + '\'' +
+                ", titleHighlights=" + titleHighlights +
+                ", snippet='" + snippet + '\'' +
+                ", snippetHighlights=" + snippetHighlights +
+                '}';
+    }
+
+    /**
+     * A range of characters [start, end) to highlight.
+     */
+    public static final class Range {
+        private final int start;
+        private final int end;
+
+        public Range(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Range && ((Range) other).start == start && ((Range) other).end == end;
+        }
+
+        @Override
+        public int hashCode() {
+            return start * 31 + end;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ")";
+        }
+    }
+}
\ No newline at end of file
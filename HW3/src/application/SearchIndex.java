@@ -0,0 +1,1364 @@
+package application;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Our SearchIndex class is an inverted index over question titles and bodies.
+ * Maps every term to the IDs of the questions that contain it, so keyword searches
+ * no longer rescan the text of every question. Terms are produced by the index's
+ * Analyzer (stemmed English words by default); search keywords must be run through
+ * the same analyzer. A keyword matches every term containing it.
+ *
+ * With the WhitespaceAnalyzer terms are the lowercased, whitespace-separated pieces of
+ * the text. A keyword (which never contains whitespace) appears inside a text exactly
+ * when it appears inside one of those terms, so lookups give the same matches as the
+ * old substring scan.
+ *
+ * Postings also record how often a term occurs in the title and in the body, which
+ * lets matches be ranked with BM25 (title occurrences weigh more than body ones), and
+ * where the first occurrences are (word position and character offset), which lets
+ * search results show the matched words without rescanning the question's text.
+ *
+ * In fuzzy mode a keyword also matches terms within a small edit distance of it
+ * ("arraylsit" finds "arraylist"). Candidates come from the trigram index, so only
+ * terms sharing enough trigrams with the keyword are ever compared.
+ *
+ * Every indexed question also gets a small document number, and the resolved and answered
+ * questions are kept as bitmaps over those numbers. Status filters are applied to the
+ * posting lists through these bitmaps while matching, so filtered searches never build
+ * or sort results that the filter would throw away.
+ *
+ * Parsed queries (QueryParser) with AND, NOT, phrases and fields are evaluated over
+ * the same document numbers. The clauses of an AND are planned cheapest first by their
+ * posting list sizes, and each later clause only checks the questions still matching,
+ * so a query costs about as much as its rarest clause. Phrases are checked against the
+ * stored word positions, which cover every occurrence of each term.
+ *
+ * The index is guarded by a read-write lock: any number of searches run in
+ * parallel, and index updates wait for them to finish.
+ */
+public class SearchIndex {
+
+    // Length of the character grams used to find terms containing a keyword
+    private static final int GRAM_LENGTH = 3;
+
+    // BM25 parameters: term frequency saturation, length normalization and field weights
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double TITLE_WEIGHT = 3.0;
+    private static final double BODY_WEIGHT = 1.0;
+
+    // Occurrences per field whose offsets are stored for highlighting (positions are kept for all)
+    static final int MAX_OCCURRENCES = 32;
+
+    // Score multiplier for terms matched only through a misspelling
+    private static final double FUZZY_WEIGHT = 0.5;
+
+    // Lower score first; ties broken by ID so rankings are stable
+    static final Comparator<Map.Entry<String, Double>> SCORE_ORDER =
+            Map.Entry.<String, Double>comparingByValue()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+
+    // term -> (question ID -> occurrences of the term in that question)
+    private Map<String, Map<String, Posting>> postings;
+
+    // question ID -> {title length, body length} in terms
+    private Map<String, int[]> fieldLengths;
+    private long totalTitleLength;
+    private long totalBodyLength;
+
+    // question ID -> terms indexed for that question (needed to unindex edited questions)
+    private Map<String, Set<String>> questionTerms;
+
+    // character trigram -> terms in the dictionary containing that trigram
+    private Map<String, Set<String>> gramIndex;
+
+    // question ID <-> document number; numbers of removed questions are reused
+    private Map<String, Integer> docNumbers;
+    private List<String> docIds;
+    private Deque<Integer> freeDocs;
+
+    // lowercased author -> documents of that author's questions, and each question's author
+    private Map<String, BitSet> authorDocs;
+    private Map<String, String> questionAuthors;
+
+    // Bitmaps over document numbers: indexed questions, resolved ones, answered ones
+    private BitSet liveDocs;
+    private BitSet resolvedDocs;
+    private BitSet answeredDocs;
+
+    // Turns titles and bodies into terms
+    private final Analyzer analyzer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor initializes an empty index of stemmed English terms.
+     */
+    public SearchIndex() {
+        this(new EnglishAnalyzer());
+    }
+
+    /**
+     * Constructor initializes an empty index.
+     *
+     * analyzer Turns titles and bodies into terms
+     */
+    public SearchIndex(Analyzer analyzer) {
+        this.analyzer = analyzer;
+        this.postings = new HashMap<>();
+        this.fieldLengths = new HashMap<>();
+        this.questionTerms = new HashMap<>();
+        this.gramIndex = new HashMap<>();
+        this.docNumbers = new HashMap<>();
+        this.docIds = new ArrayList<>();
+        this.freeDocs = new ArrayDeque<>();
+        this.authorDocs = new HashMap<>();
+        this.questionAuthors = new HashMap<>();
+        this.liveDocs = new BitSet();
+        this.resolvedDocs = new BitSet();
+        this.answeredDocs = new BitSet();
+    }
+
+    //Index Maintenance
+
+    /**
+     * Indexes the title and body of a question.
+     * Any terms previously indexed for the same question ID are replaced.
+     *
+     * question The question to index
+     */
+    public void addQuestion(Question question) {
+        lock.writeLock().lock();
+        try {
+            if (question == null || question.getQuestionId() == null) {
+                return;
+            }
+
+            String questionId = question.getQuestionId();
+            removeQuestion(questionId);
+
+            int doc = allocateDoc(questionId);
+            setStatusBits(doc, question);
+            String author = question.getAuthor() == null ? "" : question.getAuthor().toLowerCase();
+            authorDocs.computeIfAbsent(author, a -> new BitSet()).set(doc);
+            questionAuthors.put(questionId, author);
+
+            Map<String, Posting> questionPostings = new HashMap<>();
+            int titleLength = addTerms(questionPostings, analyzer.analyze(question.getTitle()), true);
+            int bodyLength = addTerms(questionPostings, analyzer.analyze(question.getBody()), false);
+
+            for (Map.Entry<String, Posting> entry : questionPostings.entrySet()) {
+                String term = entry.getKey();
+                entry.getValue().doc = doc;
+                Map<String, Posting> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    termPostings = new HashMap<>();
+                    postings.put(term, termPostings);
+                    addToGramIndex(term);
+                }
+                termPostings.put(questionId, entry.getValue());
+            }
+            questionTerms.put(questionId, questionPostings.keySet());
+            fieldLengths.put(questionId, new int[] {titleLength, bodyLength});
+            totalTitleLength += titleLength;
+            totalBodyLength += bodyLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes a question after its title or body has changed.
+     *
+     * question The edited question
+     */
+    public void updateQuestion(Question question) {
+        addQuestion(question);
+    }
+
+    /**
+     * Removes every term indexed for a question.
+     *
+     * questionId The ID of the question to remove
+     */
+    public void removeQuestion(String questionId) {
+        lock.writeLock().lock();
+        try {
+            Set<String> terms = questionTerms.remove(questionId);
+            if (terms == null) {
+                return;
+            }
+
+            for (String term : terms) {
+                Map<String, Posting> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                termPostings.remove(questionId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                    removeFromGramIndex(term);
+                }
+            }
+
+            int[] lengths = fieldLengths.remove(questionId);
+            totalTitleLength -= lengths[0];
+            totalBodyLength -= lengths[1];
+
+            Integer doc = docNumbers.remove(questionId);
+            if (doc != null) {
+                docIds.set(doc, null);
+                liveDocs.clear(doc);
+                resolvedDocs.clear(doc);
+                answeredDocs.clear(doc);
+                freeDocs.push(doc);
+
+                String author = questionAuthors.remove(questionId);
+                BitSet docs = authorDocs.get(author);
+                if (docs != null) {
+                    docs.clear(doc);
+                    if (docs.isEmpty()) {
+                        authorDocs.remove(author);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records a change of a question's resolved status or answer count,
+     * so status filters see it without re-indexing the text.
+     *
+     * question The question whose status changed
+     */
+    public void updateStatus(Question question) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = question == null ? null : docNumbers.get(question.getQuestionId());
+            if (doc != null) {
+                setStatusBits(doc, question);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes everything from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            fieldLengths.clear();
+            questionTerms.clear();
+            gramIndex.clear();
+            docNumbers.clear();
+            docIds.clear();
+            freeDocs.clear();
+            authorDocs.clear();
+            questionAuthors.clear();
+            liveDocs.clear();
+            resolvedDocs.clear();
+            answeredDocs.clear();
+            totalTitleLength = 0;
+            totalBodyLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Lookups
+
+    /**
+     * Finds the questions matching any of the given keywords.
+     * Keywords must already be lowercased and must not contain whitespace.
+     *
+     * keywords The analyzed search keywords
+     * return IDs of the questions containing at least one keyword
+     */
+    public Set<String> search(String[] keywords) {
+        return search(keywords, false);
+    }
+
+    /**
+     * Finds the questions matching any of the given keywords, optionally tolerating typos.
+     *
+     * keywords The analyzed search keywords
+     * fuzzy true to also match terms within a small edit distance of a keyword
+     * return IDs of the questions matching at least one keyword
+     */
+    public Set<String> search(String[] keywords, boolean fuzzy) {
+        return search(keywords, fuzzy, StatusFilter.ALL);
+    }
+
+    /**
+     * Finds the questions matching any of the given keywords that also pass a status filter.
+     * The filter bitmap is applied to each posting list while matching. When the filter
+     * admits fewer questions than a posting list holds, the filtered questions are probed
+     * against the posting list instead, so a selective filter keeps the search cheap.
+     *
+     * keywords The analyzed search keywords
+     * fuzzy true to also match terms within a small edit distance of a keyword
+     * filter The status filter to apply
+     * return IDs of the matching questions that pass the filter
+     */
+    public Set<String> search(String[] keywords, boolean fuzzy, StatusFilter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet allowed = filterBits(filter);
+            int allowedCount = allowed == null ? Integer.MAX_VALUE : allowed.cardinality();
+
+            BitSet matches = new BitSet(docIds.size());
+            for (String keyword : keywords) {
+                if (keyword.isEmpty() || allowedCount == 0) {
+                    continue;
+                }
+                for (String term : findTerms(keyword, fuzzy).keySet()) {
+                    Map<String, Posting> termPostings = postings.get(term);
+                    if (allowedCount < termPostings.size()) {
+                        // Fewer filtered questions than postings: probe the posting list for each
+                        for (int doc = allowed.nextSetBit(0); doc >= 0; doc = allowed.nextSetBit(doc + 1)) {
+                            if (!matches.get(doc) && termPostings.containsKey(docIds.get(doc))) {
+                                matches.set(doc);
+                            }
+                        }
+                    } else {
+                        for (Posting posting : termPostings.values()) {
+                            if (allowed == null || allowed.get(posting.doc)) {
+                                matches.set(posting.doc);
+                            }
+                        }
+                    }
+                }
+            }
+
+            Set<String> ids = new HashSet<>();
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                ids.add(docIds.get(doc));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the questions matching a parsed query that also pass a status filter.
+     * The filter's questions are the starting candidates, and every clause only
+     * checks the candidates left by the clauses before it.
+     *
+     * query The parsed query (terms already analyzed with this index's analyzer)
+     * fuzzy true to also match terms within a small edit distance of a word
+     * filter The status filter to apply
+     * return IDs of the matching questions that pass the filter
+     */
+    public Set<String> search(QueryParser.Node query, boolean fuzzy, StatusFilter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = new QueryPlan(fuzzy).evaluate(query, filterBits(filter));
+            Set<String> ids = new HashSet<>();
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                ids.add(docIds.get(doc));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the questions matching any of the given keywords and returns the best ones
+     * ranked by BM25 score over the title and body fields.
+     * Only the top results are kept in a bounded min-heap, so ranking costs
+     * O(matches * log limit) rather than a sort of every match.
+     *
+     * keywords The analyzed search keywords
+     * limit Maximum number of IDs to return
+     * accept Predicate deciding which question IDs may be returned
+     * return IDs of the best matching questions, highest score first
+     */
+    public List<String> searchRanked(String[] keywords, int limit, Predicate<String> accept) {
+        return searchRanked(keywords, false, limit, accept);
+    }
+
+    /**
+     * Ranked search that can tolerate typos.
+     * Terms matched only through a misspelling score less than exact matches.
+     *
+     * keywords The analyzed search keywords
+     * fuzzy true to also match terms within a small edit distance of a keyword
+     * limit Maximum number of IDs to return
+     * accept Predicate deciding which question IDs may be returned
+     * return IDs of the best matching questions, highest score first
+     */
+    public List<String> searchRanked(String[] keywords, boolean fuzzy, int limit, Predicate<String> accept) {
+        return searchRanked(keywords, fuzzy, limit, null, accept);
+    }
+
+    /**
+     * Ranked search restricted to the questions passing a status filter.
+     * Postings of filtered-out questions are skipped with a bitmap check before scoring.
+     *
+     * keywords The analyzed search keywords
+     * fuzzy true to also match terms within a small edit distance of a keyword
+     * limit Maximum number of IDs to return
+     * filter The status filter to apply
+     * return IDs of the best matching questions, highest score first
+     */
+    public List<String> searchRanked(String[] keywords, boolean fuzzy, int limit, StatusFilter filter) {
+        return searchRanked(keywords, fuzzy, limit, filter, id -> true);
+    }
+
+    /**
+     * Ranked search restricted both by a status filter and by a predicate, e.g. the
+     * matches of a boolean query.
+     *
+     * keywords The analyzed search keywords
+     * fuzzy true to also match terms within a small edit distance of a keyword
+     * limit Maximum number of IDs to return
+     * filter The status filter to apply
+     * accept Predicate deciding which question IDs may be returned
+     * return IDs of the best matching questions, highest score first
+     */
+    public List<String> searchRanked(String[] keywords, boolean fuzzy, int limit, StatusFilter filter,
+                                     Predicate<String> accept) {
+        List<Map.Entry<String, Double>> best = rank(keywords, fuzzy, limit, filter, accept, null);
+        List<String> ranked = new ArrayList<>(best.size());
+        for (Map.Entry<String, Double> entry : best) {
+            ranked.add(entry.getKey());
+        }
+        return ranked;
+    }
+
+    /**
+     * Collects the corpus statistics BM25 needs for a query: the number of questions,
+     * the total field lengths and the document frequency of every matching term.
+     * Statistics of several indexes can be merged, so partitions of one collection
+     * score with the statistics of the whole collection.
+     *
+     * keywords The analyzed search keywords
+     * fuzzy true to also match terms within a small edit distance of a keyword
+     * return Statistics of this index for the query's terms
+     */
+    CorpusStats corpusStats(String[] keywords, boolean fuzzy) {
+        lock.readLock().lock();
+        try {
+            CorpusStats stats = new CorpusStats();
+            stats.questionCount = fieldLengths.size();
+            stats.totalTitleLength = totalTitleLength;
+            stats.totalBodyLength = totalBodyLength;
+            for (String keyword : keywords) {
+                if (keyword.isEmpty()) {
+                    continue;
+                }
+                for (String term : findTerms(keyword, fuzzy).keySet()) {
+                    stats.documentFrequencies.put(term, postings.get(term).size());
+                }
+            }
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores this index's matches with the given corpus statistics and keeps the best ones.
+     *
+     * keywords The analyzed search keywords
+     * fuzzy true to also match terms within a small edit distance of a keyword
+     * limit Maximum number of results to return
+     * filter The status filter to apply (null for none)
+     * accept Predicate deciding which question IDs may be returned
+     * stats Corpus statistics to score with, or null to use this index's own
+     * return Question IDs with their scores, highest score first
+     */
+    List<Map.Entry<String, Double>> rank(String[] keywords, boolean fuzzy, int limit, StatusFilter filter,
+                                         Predicate<String> accept, CorpusStats stats) {
+        lock.readLock().lock();
+        try {
+            BitSet allowed = filterBits(filter);
+            if (stats == null) {
+                // Own totals; document frequencies fall back to the posting list sizes
+                stats = new CorpusStats();
+                stats.questionCount = fieldLengths.size();
+                stats.totalTitleLength = totalTitleLength;
+                stats.totalBodyLength = totalBodyLength;
+            }
+            if (limit <= 0 || fieldLengths.isEmpty() || stats.questionCount == 0) {
+                return new ArrayList<>();
+            }
+
+            int questionCount = stats.questionCount;
+            double averageTitleLength = Math.max(1.0, (double) stats.totalTitleLength / questionCount);
+            double averageBodyLength = Math.max(1.0, (double) stats.totalBodyLength / questionCount);
+
+            // Accumulate the score of every matching question
+            Map<String, Double> scores = new HashMap<>();
+            for (String keyword : keywords) {
+                if (keyword.isEmpty()) {
+                    continue;
+                }
+                for (Map.Entry<String, Double> match : findTerms(keyword, fuzzy).entrySet()) {
+                    Map<String, Posting> termPostings = postings.get(match.getKey());
+                    int documentFrequency = stats.documentFrequencies.getOrDefault(match.getKey(), termPostings.size());
+                    double idf = match.getValue() *
+                            Math.log(1.0 + (questionCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+
+                    for (Map.Entry<String, Posting> entry : termPostings.entrySet()) {
+                        String questionId = entry.getKey();
+                        Posting posting = entry.getValue();
+                        if ((allowed != null && !allowed.get(posting.doc)) || !accept.test(questionId)) {
+                            continue;
+                        }
+                        int[] lengths = fieldLengths.get(questionId);
+
+                        // BM25F: length-normalize each field, weight it, then saturate the total
+                        double frequency =
+                                TITLE_WEIGHT * posting.titleFrequency / (1 - B + B * lengths[0] / averageTitleLength) +
+                                BODY_WEIGHT * posting.bodyFrequency / (1 - B + B * lengths[1] / averageBodyLength);
+                        double score = idf * frequency * (K1 + 1) / (frequency + K1);
+                        scores.merge(questionId, score, Double::sum);
+                    }
+                }
+            }
+
+            return topScores(scores.entrySet(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the best `limit` scored entries in a bounded min-heap whose head is the
+     * weakest of them, so selecting costs O(entries * log limit) rather than a full sort.
+     *
+     * entries Question IDs with their scores
+     * limit Maximum number of entries to keep
+     * return The best entries, highest score first
+     */
+    static List<Map.Entry<String, Double>> topScores(Collection<Map.Entry<String, Double>> entries, int limit) {
+        PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(Math.min(limit, entries.size()) + 1, SCORE_ORDER);
+        for (Map.Entry<String, Double> entry : entries) {
+            if (best.size() < limit) {
+                best.add(entry);
+            } else if (SCORE_ORDER.compare(entry, best.peek()) > 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ranked.add(best.poll());
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    /**
+     * Finds where the keywords matched in each of the given questions, using the term
+     * offsets stored in the postings. A term containing a keyword is highlighted where
+     * the keyword sits inside it (through the end of the word when the keyword ends the
+     * term, so a stem covers its suffix); a term matched only through a misspelling is
+     * highlighted whole. Work per question is bounded by the number of matching terms
+     * times MAX_OCCURRENCES, whatever the length of the question.
+     *
+     * questions The questions to highlight (usually one page of search results)
+     * keywords The analyzed search keywords
+     * fuzzy true if the search tolerated misspelled keywords
+     * return One hit per question, in the same order
+     */
+    public List<SearchHit> highlight(List<Question> questions, String[] keywords, boolean fuzzy) {
+        lock.readLock().lock();
+        try {
+            // Matched term -> keywords it contains (empty when only similar to a keyword)
+            Map<String, List<String>> matched = new HashMap<>();
+            for (String keyword : keywords) {
+                if (keyword.isEmpty()) {
+                    continue;
+                }
+                for (Map.Entry<String, Double> match : findTerms(keyword, fuzzy).entrySet()) {
+                    List<String> contained = matched.computeIfAbsent(match.getKey(), t -> new ArrayList<>());
+                    if (match.getValue() == 1.0) {
+                        contained.add(keyword);
+                    }
+                }
+            }
+
+            List<SearchHit> hits = new ArrayList<>(questions.size());
+            for (Question question : questions) {
+                List<SearchHit.Range> titleMatches = new ArrayList<>();
+                List<SearchHit.Range> bodyMatches = new ArrayList<>();
+                Set<String> terms = questionTerms.getOrDefault(question.getQuestionId(), Collections.emptySet());
+                for (String term : terms) {
+                    List<String> contained = matched.get(term);
+                    if (contained == null) {
+                        continue;
+                    }
+                    Posting posting = postings.get(term).get(question.getQuestionId());
+                    addRanges(titleMatches, posting.titleOccurrences, term, contained);
+                    addRanges(bodyMatches, posting.bodyOccurrences, term, contained);
+                }
+                hits.add(SearchHit.of(question, titleMatches, bodyMatches));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds every dictionary term that contains the keyword.
+     * Keywords of at least three characters are resolved through the trigram index
+     * by intersecting the term lists of their trigrams, smallest first; shorter
+     * keywords fall back to a scan of the term dictionary.
+     *
+     * keyword The lowercased keyword
+     * return Terms containing the keyword
+     */
+    public List<String> findTermsContaining(String keyword) {
+        lock.readLock().lock();
+        try {
+            List<String> terms = new ArrayList<>();
+
+            if (keyword.length() < GRAM_LENGTH) {
+                for (String term : postings.keySet()) {
+                    if (term.contains(keyword)) {
+                        terms.add(term);
+                    }
+                }
+                return terms;
+            }
+
+            // Gather the term lists of the keyword's trigrams, rarest first
+            List<Set<String>> gramTerms = new ArrayList<>();
+            for (String gram : grams(keyword)) {
+                Set<String> candidates = gramIndex.get(gram);
+                if (candidates == null) {
+                    return terms;
+                }
+                gramTerms.add(candidates);
+            }
+            gramTerms.sort(Comparator.comparingInt(Set::size));
+
+            // Terms must contain every trigram and then the keyword itself
+            for (String term : gramTerms.get(0)) {
+                boolean candidate = true;
+                for (int i = 1; i < gramTerms.size() && candidate; i++) {
+                    candidate = gramTerms.get(i).contains(term);
+                }
+                if (candidate && term.contains(keyword)) {
+                    terms.add(term);
+                }
+            }
+            return terms;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds every dictionary term within a small edit distance of the keyword:
+     * one edit for keywords of 4 to 7 characters, two for longer ones, none for shorter.
+     * Each edit changes at most four of the keyword's trigrams (a swap touches four),
+     * so a term can only be close enough if it shares all but 4 * edits of them.
+     * Counting shared trigrams over the keyword's trigram lists finds those candidates
+     * without visiting the rest of the dictionary; only they are checked with a bounded
+     * Levenshtein distance.
+     * (Terms sharing no trigram at all with the keyword are never found.)
+     *
+     * keyword The lowercased keyword
+     * return Terms within the allowed edit distance, including exact matches
+     */
+    public List<String> findTermsSimilarTo(String keyword) {
+        lock.readLock().lock();
+        try {
+            List<String> terms = new ArrayList<>();
+            int maxEdits = allowedEdits(keyword.length());
+            if (maxEdits == 0) {
+                if (postings.containsKey(keyword)) {
+                    terms.add(keyword);
+                }
+                return terms;
+            }
+
+            Set<String> keywordGrams = grams(keyword);
+            int minShared = Math.max(1, keywordGrams.size() - (GRAM_LENGTH + 1) * maxEdits);
+
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : keywordGrams) {
+                Set<String> candidates = gramIndex.get(gram);
+                if (candidates == null) {
+                    continue;
+                }
+                for (String term : candidates) {
+                    if (Math.abs(term.length() - keyword.length()) <= maxEdits) {
+                        shared.merge(term, 1, Integer::sum);
+                    }
+                }
+            }
+
+            for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+                if (entry.getValue() >= minShared && withinEditDistance(keyword, entry.getKey(), maxEdits)) {
+                    terms.add(entry.getKey());
+                }
+            }
+            return terms;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the analyzer the index was built with; search keywords must be analyzed
+     * with the same one.
+     *
+     * return The index's analyzer
+     */
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    /**
+     * Gets the number of distinct terms in the index.
+     *
+     * return Dictionary size
+     */
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a question has been indexed.
+     *
+     * questionId The ID of the question to check
+     * return true if the question is indexed, false otherwise
+     */
+    public boolean isIndexed(String questionId) {
+        lock.readLock().lock();
+        try {
+            return questionTerms.containsKey(questionId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Helper Methods
+
+    /**
+     * Builds the bitmap of documents passing a status filter, or null when the filter
+     * accepts everything. The negative filters cost one pass over the bitmap words.
+     */
+    private BitSet filterBits(StatusFilter filter) {
+        if (filter == null) {
+            return null;
+        }
+        BitSet bits;
+        switch (filter) {
+            case RESOLVED:
+                return resolvedDocs;
+            case ANSWERED:
+                return answeredDocs;
+            case UNRESOLVED:
+                bits = (BitSet) liveDocs.clone();
+                bits.andNot(resolvedDocs);
+                return bits;
+            case UNANSWERED:
+                bits = (BitSet) liveDocs.clone();
+                bits.andNot(answeredDocs);
+                return bits;
+            default:
+                return null;
+        }
+    }
+
+    // Gives a question a document number, reusing numbers of removed questions
+    private int allocateDoc(String questionId) {
+        int doc;
+        if (freeDocs.isEmpty()) {
+            doc = docIds.size();
+            docIds.add(questionId);
+        } else {
+            doc = freeDocs.pop();
+            docIds.set(doc, questionId);
+        }
+        docNumbers.put(questionId, doc);
+        liveDocs.set(doc);
+        return doc;
+    }
+
+    private void setStatusBits(int doc, Question question) {
+        resolvedDocs.set(doc, question.isResolved());
+        answeredDocs.set(doc, question.getTotalAnswers() > 0);
+    }
+
+    /**
+     * Terms matching a keyword, each with the weight its matches score with:
+     * 1 for terms containing the keyword, FUZZY_WEIGHT for terms that only match
+     * through a misspelling.
+     */
+    private Map<String, Double> findTerms(String keyword, boolean fuzzy) {
+        Map<String, Double> terms = new HashMap<>();
+        if (fuzzy) {
+            for (String term : findTermsSimilarTo(keyword)) {
+                terms.put(term, FUZZY_WEIGHT);
+            }
+        }
+        for (String term : findTermsContaining(keyword)) {
+            terms.put(term, 1.0);
+        }
+        return terms;
+    }
+
+    // Adds the highlight ranges of one term's stored occurrences in a field
+    private static void addRanges(List<SearchHit.Range> ranges, int[] occurrences, String term, List<String> contained) {
+        for (int i = 0; i < occurrences.length; i += Posting.OCCURRENCE_SIZE) {
+            int start = occurrences[i + 1];
+            int end = occurrences[i + 2];
+            if (contained.isEmpty()) {
+                ranges.add(new SearchHit.Range(start, end));
+                continue;
+            }
+            for (String keyword : contained) {
+                for (int at = term.indexOf(keyword); at >= 0; at = term.indexOf(keyword, at + 1)) {
+                    int keywordEnd = at + keyword.length() == term.length() ? end : start + at + keyword.length();
+                    ranges.add(new SearchHit.Range(start + at, Math.min(keywordEnd, end)));
+                }
+            }
+        }
+    }
+
+    // Number of typos tolerated in a keyword of the given length
+    private static int allowedEdits(int length) {
+        if (length < 4) {
+            return 0;
+        }
+        return length < 8 ? 1 : 2;
+    }
+
+    /**
+     * Checks whether two strings are within an edit distance of each other, counting
+     * insertions, deletions, substitutions and swaps of adjacent characters
+     * ("lsit" for "list") as one edit each.
+     * Only a band of 2 * maxEdits + 1 cells per row is filled, and the check stops
+     * as soon as a whole row exceeds the bound.
+     */
+    static boolean withinEditDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return false;
+        }
+        int unreachable = maxEdits + 1;
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = Math.min(j, unreachable);
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - maxEdits);
+            int to = Math.min(b.length(), i + maxEdits);
+            Arrays.fill(current, unreachable);
+            current[0] = Math.min(i, unreachable);
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = Math.min(distance, unreachable);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+
+    /**
+     * Counts the occurrences of a field's terms, records the word position of each,
+     * and the offsets of the first MAX_OCCURRENCES of them.
+     *
+     * questionPostings Map receiving the per-term occurrences
+     * tokens The analyzed title or body
+     * title true when the tokens are the title's, false for the body's
+     * return Number of terms in the field
+     */
+    private static int addTerms(Map<String, Posting> questionPostings, List<Analyzer.Token> tokens, boolean title) {
+        for (Analyzer.Token token : tokens) {
+            Posting posting = questionPostings.computeIfAbsent(token.getTerm(), t -> new Posting());
+            posting.addOccurrence(title, token.getPosition(), token.getStart(), token.getEnd());
+        }
+        for (Posting posting : questionPostings.values()) {
+            posting.trim();
+        }
+        return tokens.size();
+    }
+
+    private void addToGramIndex(String term) {
+        for (String gram : grams(term)) {
+            gramIndex.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+        }
+    }
+
+    private void removeFromGramIndex(String term) {
+        for (String gram : grams(term)) {
+            Set<String> terms = gramIndex.get(gram);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    gramIndex.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the distinct character trigrams of a term.
+     * Terms shorter than three characters have none.
+     */
+    private static Set<String> grams(String term) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            grams.add(term.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * Evaluates one parsed query over document bitmaps. Must be used under the read lock.
+     * Candidates of null stand for every indexed question; bitmaps passed in are never
+     * modified, since they may be the index's own status bitmaps.
+     */
+    private final class QueryPlan {
+        private final boolean fuzzy;
+
+        // Dictionary terms matched by each word of the query, looked up once
+        private final Map<QueryParser.Term, Set<String>> matchedTerms = new IdentityHashMap<>();
+
+        QueryPlan(boolean fuzzy) {
+            this.fuzzy = fuzzy;
+        }
+
+        BitSet evaluate(QueryParser.Node node, BitSet candidates) {
+            if (node instanceof QueryParser.Term) {
+                return evaluateTerm((QueryParser.Term) node, candidates);
+            }
+            if (node instanceof QueryParser.Phrase) {
+                return evaluatePhrase((QueryParser.Phrase) node, candidates);
+            }
+            if (node instanceof QueryParser.And) {
+                return evaluateAnd(((QueryParser.And) node).getClauses(), candidates);
+            }
+            if (node instanceof QueryParser.Or) {
+                return evaluateOr(((QueryParser.Or) node).getClauses(), candidates);
+            }
+            if (node instanceof QueryParser.Not) {
+                return evaluateOr(Collections.singletonList(node), candidates);
+            }
+            return new BitSet();
+        }
+
+        /**
+         * Estimates how many questions a clause matches, from posting list sizes.
+         */
+        long estimate(QueryParser.Node node) {
+            if (node instanceof QueryParser.Term) {
+                QueryParser.Term term = (QueryParser.Term) node;
+                if (QueryParser.AUTHOR.equals(term.getField())) {
+                    BitSet docs = authorDocs.get(term.getText());
+                    return docs == null ? 0 : docs.cardinality();
+                }
+                long size = 0;
+                for (String match : terms(term)) {
+                    size += postings.get(match).size();
+                }
+                return size;
+            }
+            if (node instanceof QueryParser.Phrase) {
+                long size = Long.MAX_VALUE;
+                for (String term : ((QueryParser.Phrase) node).getTerms()) {
+                    Map<String, Posting> termPostings = postings.get(term);
+                    size = Math.min(size, termPostings == null ? 0 : termPostings.size());
+                }
+                return size;
+            }
+            if (node instanceof QueryParser.And) {
+                long size = docNumbers.size();
+                for (QueryParser.Node clause : ((QueryParser.And) node).getClauses()) {
+                    if (!(clause instanceof QueryParser.Not)) {
+                        size = Math.min(size, estimate(clause));
+                    }
+                }
+                return size;
+            }
+            if (node instanceof QueryParser.Or) {
+                long size = 0;
+                for (QueryParser.Node clause : ((QueryParser.Or) node).getClauses()) {
+                    size += clause instanceof QueryParser.Not ? docNumbers.size() : estimate(clause);
+                }
+                return Math.min(size, docNumbers.size());
+            }
+            return docNumbers.size();
+        }
+
+        // Positive clauses cheapest first, each narrowing the candidates; then the negated ones
+        private BitSet evaluateAnd(List<QueryParser.Node> clauses, BitSet candidates) {
+            List<QueryParser.Node> positive = new ArrayList<>();
+            List<QueryParser.Node> negated = new ArrayList<>();
+            for (QueryParser.Node clause : clauses) {
+                (clause instanceof QueryParser.Not ? negated : positive).add(clause);
+            }
+            positive.sort(Comparator.comparingLong(this::estimate));
+
+            BitSet matches = null;
+            for (QueryParser.Node clause : positive) {
+                matches = evaluate(clause, matches == null ? candidates : matches);
+                if (matches.isEmpty()) {
+                    return matches;
+                }
+            }
+            if (matches == null) {
+                matches = copyOf(candidates);
+            }
+            for (QueryParser.Node clause : negated) {
+                matches.andNot(evaluate(((QueryParser.Not) clause).getClause(), matches));
+            }
+            return matches;
+        }
+
+        // Union of the positive clauses, minus the matches of the negated ones
+        private BitSet evaluateOr(List<QueryParser.Node> clauses, BitSet candidates) {
+            BitSet matches = null;
+            List<QueryParser.Node> negated = new ArrayList<>();
+            for (QueryParser.Node clause : clauses) {
+                if (clause instanceof QueryParser.Not) {
+                    negated.add(clause);
+                } else if (matches == null) {
+                    matches = evaluate(clause, candidates);
+                } else {
+                    matches.or(evaluate(clause, candidates));
+                }
+            }
+            if (matches == null) {
+                // Only negated clauses: everything else matches
+                matches = copyOf(candidates);
+            }
+            for (QueryParser.Node clause : negated) {
+                if (matches.isEmpty()) {
+                    break;
+                }
+                matches.andNot(evaluate(((QueryParser.Not) clause).getClause(), matches));
+            }
+            return matches;
+        }
+
+        private BitSet evaluateTerm(QueryParser.Term term, BitSet candidates) {
+            if (QueryParser.AUTHOR.equals(term.getField())) {
+                BitSet matches = copyOf(authorDocs.getOrDefault(term.getText(), new BitSet()));
+                if (candidates != null) {
+                    matches.and(candidates);
+                }
+                return matches;
+            }
+
+            BitSet matches = new BitSet();
+            int candidateCount = candidates == null ? Integer.MAX_VALUE : candidates.cardinality();
+            for (String match : terms(term)) {
+                Map<String, Posting> termPostings = postings.get(match);
+                if (candidateCount < termPostings.size()) {
+                    // Fewer candidates than postings: probe the posting list for each
+                    for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                        Posting posting = termPostings.get(docIds.get(doc));
+                        if (posting != null && inField(posting, term.getField())) {
+                            matches.set(doc);
+                        }
+                    }
+                } else {
+                    for (Posting posting : termPostings.values()) {
+                        if ((candidates == null || candidates.get(posting.doc)) && inField(posting, term.getField())) {
+                            matches.set(posting.doc);
+                        }
+                    }
+                }
+            }
+            return matches;
+        }
+
+        // Questions with the rarest term of the phrase, then a position check on each
+        private BitSet evaluatePhrase(QueryParser.Phrase phrase, BitSet candidates) {
+            BitSet matches = new BitSet();
+            List<Map<String, Posting>> termPostings = new ArrayList<>();
+            int rarest = 0;
+            for (String term : phrase.getTerms()) {
+                Map<String, Posting> found = postings.get(term);
+                if (found == null) {
+                    return matches;
+                }
+                termPostings.add(found);
+                if (found.size() < termPostings.get(rarest).size()) {
+                    rarest = termPostings.size() - 1;
+                }
+            }
+
+            int candidateCount = candidates == null ? Integer.MAX_VALUE : candidates.cardinality();
+            if (candidateCount < termPostings.get(rarest).size()) {
+                for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                    if (phraseAt(phrase, termPostings, docIds.get(doc))) {
+                        matches.set(doc);
+                    }
+                }
+            } else {
+                for (Map.Entry<String, Posting> entry : termPostings.get(rarest).entrySet()) {
+                    int doc = entry.getValue().doc;
+                    if ((candidates == null || candidates.get(doc)) && phraseAt(phrase, termPostings, entry.getKey())) {
+                        matches.set(doc);
+                    }
+                }
+            }
+            return matches;
+        }
+
+        // Whether the phrase's terms occur at consecutive positions in one field of a question
+        private boolean phraseAt(QueryParser.Phrase phrase, List<Map<String, Posting>> termPostings, String questionId) {
+            Posting[] found = new Posting[termPostings.size()];
+            for (int i = 0; i < found.length; i++) {
+                found[i] = termPostings.get(i).get(questionId);
+                if (found[i] == null) {
+                    return false;
+                }
+            }
+            String field = phrase.getField();
+            return (!QueryParser.BODY.equals(field) && phraseIn(phrase, found, true)) ||
+                   (!QueryParser.TITLE.equals(field) && phraseIn(phrase, found, false));
+        }
+
+        private boolean phraseIn(QueryParser.Phrase phrase, Posting[] found, boolean title) {
+            int[][] positions = new int[found.length][];
+            for (int t = 0; t < found.length; t++) {
+                positions[t] = found[t].positions(title);
+                if (positions[t].length == 0) {
+                    return false;
+                }
+            }
+            for (int first : positions[0]) {
+                boolean all = true;
+                for (int t = 1; t < found.length && all; t++) {
+                    all = Arrays.binarySearch(positions[t], first + phrase.offset(t)) >= 0;
+                }
+                if (all) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean inField(Posting posting, String field) {
+            if (QueryParser.TITLE.equals(field)) {
+                return posting.titleFrequency > 0;
+            }
+            if (QueryParser.BODY.equals(field)) {
+                return posting.bodyFrequency > 0;
+            }
+            return true;
+        }
+
+        private Set<String> terms(QueryParser.Term term) {
+            return matchedTerms.computeIfAbsent(term, t -> findTerms(t.getText(), fuzzy).keySet());
+        }
+
+        private BitSet copyOf(BitSet candidates) {
+            return (BitSet) (candidates == null ? liveDocs : candidates).clone();
+        }
+    }
+
+    /**
+     * Status filters that can be pushed into a search.
+     */
+    public enum StatusFilter {
+        ALL, RESOLVED, UNRESOLVED, ANSWERED, UNANSWERED;
+
+        /**
+         * Maps a filter name used by the UI ("all", "unresolved", "answered", "unanswered")
+         * to a status filter. Unknown names and null filter nothing.
+         *
+         * name The filter name, in any case
+         * return The matching status filter, or ALL
+         */
+        public static StatusFilter fromName(String name) {
+            if (name == null) {
+                return ALL;
+            }
+            switch (name.toLowerCase()) {
+                case "resolved":
+                    return RESOLVED;
+                case "unresolved":
+                    return UNRESOLVED;
+                case "answered":
+                    return ANSWERED;
+                case "unanswered":
+                    return UNANSWERED;
+                default:
+                    return ALL;
+            }
+        }
+    }
+
+    /**
+     * Corpus-wide numbers used by BM25: question count, total field lengths and
+     * the document frequency of each term matched by a query.
+     */
+    static class CorpusStats {
+        int questionCount;
+        long totalTitleLength;
+        long totalBodyLength;
+        final Map<String, Integer> documentFrequencies = new HashMap<>();
+
+        /**
+         * Adds another partition's statistics to these.
+         *
+         * other Statistics of another index
+         */
+        void add(CorpusStats other) {
+            questionCount += other.questionCount;
+            totalTitleLength += other.totalTitleLength;
+            totalBodyLength += other.totalBodyLength;
+            other.documentFrequencies.forEach((term, frequency) -> documentFrequencies.merge(term, frequency, Integer::sum));
+        }
+    }
+
+    /**
+     * Occurrences of one term in one question. The first MAX_OCCURRENCES occurrences
+     * in each field are kept as (word position, start offset, end offset) triples; the
+     * positions of any later ones are kept as variable-length deltas from the previous
+     * position, so phrases are checked against every occurrence at a byte or two each.
+     */
+    private static class Posting {
+        private static final int[] NONE = new int[0];
+        private static final byte[] NO_BYTES = new byte[0];
+        static final int OCCURRENCE_SIZE = 3;
+
+        int doc;
+        int titleFrequency;
+        int bodyFrequency;
+        int[] titleOccurrences = NONE;
+        int[] bodyOccurrences = NONE;
+        byte[] moreTitlePositions = NO_BYTES;
+        byte[] moreBodyPositions = NO_BYTES;
+        // While indexing: bytes used in the arrays above, and the last position added
+        private int moreTitleLength;
+        private int moreBodyLength;
+        private int lastTitlePosition;
+        private int lastBodyPosition;
+
+        void addOccurrence(boolean title, int position, int start, int end) {
+            int frequency = title ? titleFrequency++ : bodyFrequency++;
+            int previous = title ? lastTitlePosition : lastBodyPosition;
+            if (title) {
+                lastTitlePosition = position;
+            } else {
+                lastBodyPosition = position;
+            }
+            if (frequency >= MAX_OCCURRENCES) {
+                addMorePosition(title, position - previous);
+                return;
+            }
+            int[] occurrences = title ? titleOccurrences : bodyOccurrences;
+            if (OCCURRENCE_SIZE * (frequency + 1) > occurrences.length) {
+                occurrences = Arrays.copyOf(occurrences, Math.max(2 * OCCURRENCE_SIZE, occurrences.length * 2));
+            }
+            occurrences[OCCURRENCE_SIZE * frequency] = position;
+            occurrences[OCCURRENCE_SIZE * frequency + 1] = start;
+            occurrences[OCCURRENCE_SIZE * frequency + 2] = end;
+            if (title) {
+                titleOccurrences = occurrences;
+            } else {
+                bodyOccurrences = occurrences;
+            }
+        }
+
+        // Appends a position delta, seven bits per byte with the high bit marking more bytes
+        private void addMorePosition(boolean title, int delta) {
+            byte[] bytes = title ? moreTitlePositions : moreBodyPositions;
+            int length = title ? moreTitleLength : moreBodyLength;
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(16, bytes.length * 2));
+            }
+            while ((delta & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            bytes[length++] = (byte) delta;
+            if (title) {
+                moreTitlePositions = bytes;
+                moreTitleLength = length;
+            } else {
+                moreBodyPositions = bytes;
+                moreBodyLength = length;
+            }
+        }
+
+        // Word positions of every occurrence in a field, in increasing order
+        int[] positions(boolean title) {
+            int frequency = title ? titleFrequency : bodyFrequency;
+            int[] occurrences = title ? titleOccurrences : bodyOccurrences;
+            byte[] more = title ? moreTitlePositions : moreBodyPositions;
+            int[] positions = new int[frequency];
+            int stored = Math.min(frequency, MAX_OCCURRENCES);
+            for (int i = 0; i < stored; i++) {
+                positions[i] = occurrences[OCCURRENCE_SIZE * i];
+            }
+            int position = stored > 0 ? positions[stored - 1] : 0;
+            int at = 0;
+            for (int i = stored; i < frequency; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = more[at++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                position += delta;
+                positions[i] = position;
+            }
+            return positions;
+        }
+
+        // Drops the unused end of the occurrence arrays once a question is indexed
+        void trim() {
+            int titleStored = OCCURRENCE_SIZE * Math.min(titleFrequency, MAX_OCCURRENCES);
+            if (titleOccurrences.length > titleStored) {
+                titleOccurrences = Arrays.copyOf(titleOccurrences, titleStored);
+            }
+            int bodyStored = OCCURRENCE_SIZE * Math.min(bodyFrequency, MAX_OCCURRENCES);
+            if (bodyOccurrences.length > bodyStored) {
+                bodyOccurrences = Arrays.copyOf(bodyOccurrences, bodyStored);
+            }
+            if (moreTitlePositions.length > moreTitleLength) {
+                moreTitlePositions = Arrays.copyOf(moreTitlePositions, moreTitleLength);
+            }
+            if (moreBodyPositions.length > moreBodyLength) {
+                moreBodyPositions = Arrays.copyOf(moreBodyPositions, moreBodyLength);
+            }
+        }
+    }
+}
\ No newline at end of file
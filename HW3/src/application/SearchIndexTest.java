@@ -0,0 +1,938 @@
+package application;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Simple Search Test for Q&A System
+ * Tests that the search index keeps returning the right questions
+ * as questions are added, edited and deleted
+ */
+public class SearchIndexTest {
+
+    private static int totalTests = 0;
+    private static int passedTests = 0;
+    private static int failedTests = 0;
+
+    public static void main(String[] args) {
+        System.out.println("==========================================");
+        System.out.println("Q&A System Search Index Test");
+        System.out.println("==========================================");
+        System.out.println();
+
+        // Run test cases
+        testCase1_MatchesSubstringScan();
+        testCase2_EditedQuestionIsReindexed();
+        testCase3_DeletedQuestionIsNotFound();
+        testCase4_RelevanceRanking();
+        testCase5_FilterIndexesFollowStatus();
+        testCase6_CursorPagination();
+        testCase7_TypeaheadSuggestions();
+        testCase8_FuzzySearch();
+        testCase9_NearDuplicates();
+        testCase10_FilteredSearch();
+        testCase11_ShardedSearch();
+        testCase12_SearchResultCache();
+        testCase13_SnippetsAndHighlights();
+        testCase14_EnglishAnalysis();
+        testCase15_BooleanQueries();
+        testCase16_PhrasesAfterManyOccurrences();
+
+        // Print summary
+        printSummary();
+    }
+
+    // Test Case 1: Indexed search returns exactly what the old substring scan returned
+    private static void testCase1_MatchesSubstringScan() {
+        System.out.println("TEST CASE 1: Index matches substring scan");
+        System.out.println("----------------------------");
+        System.out.println("Question: Does the index find the same questions as scanning every question?");
+        System.out.println("Expected: Identical result lists for every query");
+        System.out.println();
+
+        // The whitespace analyzer keeps the substring semantics of the old scan
+        Questions questions = new Questions();
+        questions.setAnalyzer(new WhitespaceAnalyzer());
+        List<Question> corpus = buildCorpus(500, 42);
+        for (Question q : corpus) {
+            questions.addQuestion(q);
+        }
+
+        String[] queries = {"java", "TableView", "nullpointer", "db", "a", "list?", "ArrayList H2",
+                            "xyz", "cell factories", "o(1)", "  spaced   query  "};
+        int mismatches = 0;
+        for (String query : queries) {
+            List<Question> expected = scan(corpus, query);
+            List<Question> actual = questions.searchQuestions(query);
+            if (!sameIds(expected, actual)) {
+                mismatches++;
+                System.out.println("  Mismatch for \"" + query + "\": expected " + expected.size() +
+                                   ", got " + actual.size());
+            }
+        }
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Queries Checked: " + queries.length);
+        System.out.println("  Mismatches: " + mismatches);
+        System.out.println();
+
+        printResult(mismatches == 0);
+        System.out.println();
+    }
+
+    // Test Case 2: Editing a question's text changes what it matches
+    private static void testCase2_EditedQuestionIsReindexed() {
+        System.out.println("TEST CASE 2: Edited question is re-indexed");
+        System.out.println("----------------------------");
+        System.out.println("Question: After editing a title, is the question found by the new words only?");
+        System.out.println("Expected: Old title word finds nothing, new title word finds the question");
+        System.out.println();
+
+        Questions questions = new Questions();
+        Question question = new Question("How do I use Scanner?", "Reading input from the console", "testuser");
+        questions.addQuestion(question);
+
+        question.setTitle("How do I use BufferedReader?");
+        questions.updateQuestion(question);
+
+        int oldMatches = questions.searchQuestions("scanner").size();
+        int newMatches = questions.searchQuestions("bufferedreader").size();
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Matches for old word: " + oldMatches);
+        System.out.println("  Matches for new word: " + newMatches);
+        System.out.println();
+
+        printResult(oldMatches == 0 && newMatches == 1);
+        System.out.println();
+    }
+
+    // Test Case 3: Deleted questions disappear from search results
+    private static void testCase3_DeletedQuestionIsNotFound() {
+        System.out.println("TEST CASE 3: Deleted question is not found");
+        System.out.println("----------------------------");
+        System.out.println("Question: Does a deleted question still show up in searches?");
+        System.out.println("Expected: Only the remaining question is found");
+        System.out.println();
+
+        Questions questions = new Questions();
+        Question first = new Question("Recursion base case", "When does recursion stop?", "testuser");
+        Question second = new Question("Recursion depth", "How deep can recursion go?", "helper");
+        questions.addQuestion(first);
+        questions.addQuestion(second);
+        questions.deleteQuestion(first.getQuestionId());
+
+        List<Question> results = questions.searchQuestions("recursion");
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Results: " + results.size());
+        System.out.println();
+
+        printResult(results.size() == 1 && results.get(0) == second);
+        System.out.println();
+    }
+
+    // Test Case 4: Relevance search ranks title matches first and honours limit and filter
+    private static void testCase4_RelevanceRanking() {
+        System.out.println("TEST CASE 4: Relevance ranking");
+        System.out.println("----------------------------");
+        System.out.println("Question: Does a title match outrank a body-only match, within the limit and filter?");
+        System.out.println("Expected: Title match first, at most 'limit' results, resolved questions filtered out");
+        System.out.println();
+
+        Questions questions = new Questions();
+        for (Question q : buildCorpus(300, 7)) {
+            questions.addQuestion(q);
+        }
+        Question bodyMatch = new Question("Help with my homework",
+                "My program throws a ConcurrentModificationException inside a loop", "testuser");
+        Question titleMatch = new Question("ConcurrentModificationException in a loop",
+                "My program throws an error inside a loop", "testuser");
+        Question resolvedMatch = new Question("Resolved ConcurrentModificationException",
+                "Already answered", "helper");
+        resolvedMatch.markAsResolved("answer-1");
+        questions.addQuestion(bodyMatch);
+        questions.addQuestion(titleMatch);
+        questions.addQuestion(resolvedMatch);
+
+        List<Question> ranked = questions.searchQuestionsByRelevance("concurrentmodificationexception", "unresolved", 10);
+        List<Question> limited = questions.searchQuestionsByRelevance("java list", "all", 5);
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Ranked Results: " + ranked.size());
+        System.out.println("  First Result: " + (ranked.isEmpty() ? "none" : ranked.get(0).getTitle()));
+        System.out.println("  Limited Results: " + limited.size());
+        System.out.println();
+
+        boolean passed = ranked.size() == 2 &&
+                        ranked.get(0) == titleMatch &&
+                        ranked.get(1) == bodyMatch &&
+                        limited.size() == 5;
+
+        printResult(passed);
+        System.out.println();
+    }
+
+    // Test Case 5: Filter views stay sorted and follow status changes
+    private static void testCase5_FilterIndexesFollowStatus() {
+        System.out.println("TEST CASE 5: Filter indexes follow status changes");
+        System.out.println("----------------------------");
+        System.out.println("Question: After answering and resolving a question, do the filters move it?");
+        System.out.println("Expected: Question leaves Unanswered/Unresolved and joins Answered/Resolved, lists newest first");
+        System.out.println();
+
+        Questions questions = new Questions();
+        for (Question q : buildCorpus(200, 3)) {
+            questions.addQuestion(q);
+        }
+        Question question = new Question("Why is my loop infinite?", "The counter never changes", "testuser");
+        questions.addQuestion(question);
+        boolean initiallyUnanswered = questions.getUnansweredQuestions().contains(question) &&
+                                      questions.getMyUnresolvedQuestions("testuser").contains(question);
+
+        question.incrementTotalAnswers();
+        question.markAsResolved("answer-1");
+        questions.updateQuestion(question);
+
+        boolean moved = questions.getAnsweredQuestions().contains(question) &&
+                        questions.getResolvedQuestions().contains(question) &&
+                        !questions.getUnansweredQuestions().contains(question) &&
+                        !questions.getUnresolvedQuestions().contains(question) &&
+                        !questions.getMyUnresolvedQuestions("testuser").contains(question);
+
+        List<Question> all = questions.getAllQuestionsSortedByMostRecent();
+        boolean sorted = true;
+        for (int i = 1; i < all.size(); i++) {
+            sorted &= !all.get(i).getCreatedAt().isAfter(all.get(i - 1).getCreatedAt());
+        }
+        int partitioned = questions.getResolvedQuestions().size() + questions.getUnresolvedQuestions().size();
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Initially Unanswered: " + initiallyUnanswered);
+        System.out.println("  Moved After Update: " + moved);
+        System.out.println("  Most Recent Sorted: " + sorted);
+        System.out.println("  Resolved + Unresolved: " + partitioned + " of " + questions.getQuestionCount());
+        System.out.println();
+
+        printResult(initiallyUnanswered && moved && sorted && partitioned == questions.getQuestionCount());
+        System.out.println();
+    }
+
+    // Test Case 6: Paging through a listing with cursors visits every question once, in order
+    private static void testCase6_CursorPagination() {
+        System.out.println("TEST CASE 6: Cursor pagination");
+        System.out.println("----------------------------");
+        System.out.println("Question: Do pages of 7 concatenate to the full most-recent listing?");
+        System.out.println("Expected: Same questions in the same order, last page has no cursor");
+        System.out.println();
+
+        Questions questions = new Questions();
+        for (Question q : buildCorpus(50, 11)) {
+            questions.addQuestion(q);
+        }
+
+        List<Question> paged = new ArrayList<>();
+        QuestionPage.Cursor cursor = null;
+        int pages = 0;
+        do {
+            QuestionPage page = questions.page("all", cursor, 7);
+            paged.addAll(page.getQuestions());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        boolean sameOrder = paged.equals(questions.getAllQuestionsSortedByMostRecent());
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Pages: " + pages);
+        System.out.println("  Questions Paged: " + paged.size());
+        System.out.println("  Same Order As Full Listing: " + sameOrder);
+        System.out.println();
+
+        printResult(pages == 8 && sameOrder);
+        System.out.println();
+    }
+
+    // Test Case 7: Search-as-you-type completes title words and finds questions by prefix
+    private static void testCase7_TypeaheadSuggestions() {
+        System.out.println("TEST CASE 7: Search-as-you-type suggestions");
+        System.out.println("----------------------------");
+        System.out.println("Question: Do partial words complete to title words and find the matching questions?");
+        System.out.println("Expected: Completions by frequency, questions matching every prefix, newest first");
+        System.out.println();
+
+        Questions questions = new Questions();
+        List<Question> corpus = buildCorpus(2000, 19);
+        for (Question q : corpus) {
+            questions.addQuestion(q);
+        }
+        Question edited = corpus.get(0);
+        edited.setTitle("Tablespoon recursion");
+        questions.updateQuestion(edited);
+
+        List<String> completions = questions.suggestCompletions("How to use ta", 3);
+        // "İ" lowercases to two chars, which must not shift where the last word starts
+        List<String> dottedCompletions = questions.suggestCompletions("İİİ ta", 3);
+        // '½' is a number (\p{N}) both when indexing and when finding the last word
+        questions.addQuestion(new Question("Halving a recipe with ½tsp of salt", "How do I measure it?", "cook"));
+        List<String> fractionCompletions = questions.suggestCompletions("How much ½ts", 3);
+        List<Question> suggested = questions.suggestQuestions("java tab", 5);
+
+        // Reference: scan every title for words starting with each prefix
+        List<Question> expected = corpus.stream()
+                .filter(q -> hasWordStartingWith(q.getTitle(), "java") && hasWordStartingWith(q.getTitle(), "tab"))
+                .sorted(Questions.MOST_RECENT_FIRST)
+                .limit(5)
+                .collect(Collectors.toList());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            questions.suggestCompletions("th", 5);
+            questions.suggestQuestions("th", 5);
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / 1000;
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Completions: " + completions);
+        System.out.println("  Completions After İ: " + dottedCompletions);
+        System.out.println("  Completions With ½: " + fractionCompletions);
+        System.out.println("  Suggested Questions: " + suggested.size());
+        System.out.println("  Same As Scan: " + suggested.equals(expected));
+        System.out.println("  Microseconds Per Keystroke: " + String.format("%.1f", micros));
+        System.out.println();
+
+        boolean passed = completions.equals(Arrays.asList("How to use tableview", "How to use tablespoon")) &&
+                        dottedCompletions.equals(Arrays.asList("İİİ tableview", "İİİ tablespoon")) &&
+                        fractionCompletions.equals(Arrays.asList("How much ½tsp")) &&
+                        !suggested.isEmpty() &&
+                        suggested.equals(expected) &&
+                        questions.suggestCompletions("java ", 5).isEmpty();
+
+        printResult(passed);
+        System.out.println();
+    }
+
+    // Test Case 8: Fuzzy mode finds questions despite misspelled keywords
+    private static void testCase8_FuzzySearch() {
+        System.out.println("TEST CASE 8: Typo-tolerant search");
+        System.out.println("----------------------------");
+        System.out.println("Question: Do misspelled keywords find questions in fuzzy mode, and only then?");
+        System.out.println("Expected: Exact search finds nothing, fuzzy search matches a scan with edit distance");
+        System.out.println();
+
+        Questions questions = new Questions();
+        List<Question> corpus = buildCorpus(500, 23);
+        for (Question q : corpus) {
+            questions.addQuestion(q);
+        }
+
+        String[] misspelled = {"ArrayLsit", "NullPointerExeption", "Scaner", "recursoin", "databse"};
+        int exactHits = 0;
+        int mismatches = 0;
+        for (String keyword : misspelled) {
+            exactHits += questions.searchQuestions(keyword).size();
+            List<Question> fuzzy = questions.searchQuestions(keyword, true);
+            List<Question> expected = corpus.stream()
+                    .filter(q -> hasWordNear(q.getTitle() + " " + q.getBody(), keyword.toLowerCase()))
+                    .collect(Collectors.toList());
+            if (fuzzy.isEmpty() || !sameIds(expected, fuzzy)) {
+                mismatches++;
+                System.out.println("  Mismatch for \"" + keyword + "\": expected " + expected.size() +
+                                   ", got " + fuzzy.size());
+            }
+        }
+        int unrelated = questions.searchQuestions("xylophone", true).size();
+        List<Question> ranked = questions.searchQuestionsByRelevance("ArrayLsit", "all", 10, true);
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Exact Hits For Misspellings: " + exactHits);
+        System.out.println("  Fuzzy Mismatches: " + mismatches);
+        System.out.println("  Unrelated Word Hits: " + unrelated);
+        System.out.println("  Ranked Fuzzy Results: " + ranked.size());
+        System.out.println();
+
+        printResult(exactHits == 0 && mismatches == 0 && unrelated == 0 && ranked.size() == 10);
+        System.out.println();
+    }
+
+    // Test Case 9: Reworded questions are reported as similar
+    private static void testCase9_NearDuplicates() {
+        System.out.println("TEST CASE 9: Near-duplicate questions");
+        System.out.println("----------------------------");
+        System.out.println("Question: Is a reworded question found among 1000 others, and forgotten once deleted?");
+        System.out.println("Expected: Original reported first; unrelated text, disabled detection and deleted original find nothing");
+        System.out.println();
+
+        Questions questions = new Questions();
+        boolean disabledFindsNothing;
+        Question original = new Question("How do I reverse an ArrayList in Java?",
+                "I want to reverse the order of the elements in my ArrayList without copying it", "testuser");
+        questions.addQuestion(original);
+        disabledFindsNothing = questions.findSimilarQuestions(original.getTitle(), original.getBody(), 5).isEmpty();
+
+        for (Question q : buildCorpus(1000, 29)) {
+            questions.addQuestion(q);
+        }
+        questions.setNearDuplicateDetection(true);
+
+        List<Question> similar = questions.findSimilarQuestions("How can I reverse an ArrayList in java",
+                "I want to reverse the order of elements in an ArrayList without copying it", 5);
+        List<Question> unrelated = questions.findSimilarQuestions("Why does my recursive function overflow the stack?",
+                "Every call to my factorial method throws StackOverflowError", 5);
+
+        questions.deleteQuestion(original.getQuestionId());
+        List<Question> afterDelete = questions.findSimilarQuestions(original.getTitle(), original.getBody(), 5);
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Disabled Finds Nothing: " + disabledFindsNothing);
+        System.out.println("  Similar To Reworded: " + similar.size());
+        System.out.println("  First Similar: " + (similar.isEmpty() ? "none" : similar.get(0).getTitle()));
+        System.out.println("  Similar To Unrelated: " + unrelated.size());
+        System.out.println("  Similar After Delete: " + afterDelete.size());
+        System.out.println();
+
+        boolean passed = disabledFindsNothing &&
+                        !similar.isEmpty() && similar.get(0) == original &&
+                        unrelated.isEmpty() &&
+                        !afterDelete.contains(original);
+
+        printResult(passed);
+        System.out.println();
+    }
+
+    // Test Case 10: Filters applied inside the index give the same results as filtering afterwards
+    private static void testCase10_FilteredSearch() {
+        System.out.println("TEST CASE 10: Filtered search");
+        System.out.println("----------------------------");
+        System.out.println("Question: Does pushing the filter into the index return what filtering the results did?");
+        System.out.println("Expected: Identical lists for every query and filter, including after status changes");
+        System.out.println();
+
+        Questions questions = new Questions();
+        List<Question> corpus = buildCorpus(3000, 31);
+        for (Question q : corpus) {
+            questions.addQuestion(q);
+        }
+        // Change statuses in place; the index must pick them up without updateQuestion
+        Random random = new Random(5);
+        for (Question q : corpus) {
+            if (random.nextInt(3) == 0) {
+                q.incrementTotalAnswers();
+            }
+            if (random.nextInt(20) == 0) {
+                q.markAsResolved("answer-1");
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            questions.deleteQuestion(corpus.get(random.nextInt(corpus.size())).getQuestionId());
+        }
+
+        String[] queries = {"java", "recursion thread", "h2", "a", "scaner"};
+        String[] filters = {"all", "unresolved", "answered", "unanswered", "My Unresolved"};
+        int mismatches = 0;
+        for (String query : queries) {
+            for (String filter : filters) {
+                List<Question> expected = questions.searchQuestions(query, true).stream()
+                        .filter(q -> passes(q, filter))
+                        .collect(Collectors.toList());
+                if (!sameIds(expected, questions.searchQuestionsWithFilter(query, filter, true))) {
+                    mismatches++;
+                    System.out.println("  Mismatch for \"" + query + "\" / " + filter);
+                }
+                for (Question q : questions.searchQuestionsByRelevance(query, filter, 20, true)) {
+                    if (!passes(q, filter)) {
+                        mismatches++;
+                        System.out.println("  Ranked result fails filter for \"" + query + "\" / " + filter);
+                        break;
+                    }
+                }
+            }
+        }
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Query/Filter Pairs Checked: " + queries.length * filters.length);
+        System.out.println("  Resolved Questions: " + questions.getResolvedCount());
+        System.out.println("  Mismatches: " + mismatches);
+        System.out.println();
+
+        printResult(mismatches == 0);
+        System.out.println();
+    }
+
+    private static void testCase11_ShardedSearch() {
+        System.out.println("TEST CASE 11: Sharded search");
+        System.out.println("----------------------------");
+        System.out.println("Question: Does a search fanned out over shards return what a single index does?");
+        System.out.println("Expected: Same matches and the same ranking, in the same order, for every query and filter");
+        System.out.println();
+
+        Questions questions = new Questions();
+        List<Question> corpus = buildCorpus(3000, 47);
+        for (Question q : corpus) {
+            questions.addQuestion(q);
+        }
+        Random random = new Random(9);
+        for (Question q : corpus) {
+            if (random.nextInt(4) == 0) {
+                q.incrementTotalAnswers();
+            }
+        }
+
+        String[] queries = {"java", "recursion thread", "h2 database", "a", "scaner"};
+        String[] filters = {"all", "unresolved", "answered", "unanswered"};
+        List<List<Question>> single = new ArrayList<>();
+        for (String query : queries) {
+            for (String filter : filters) {
+                single.add(questions.searchQuestionsWithFilter(query, filter, true));
+                single.add(questions.searchQuestionsByRelevance(query, filter, 15, true));
+            }
+        }
+
+        questions.setSearchShards(4);
+        int mismatches = 0;
+        int i = 0;
+        for (String query : queries) {
+            for (String filter : filters) {
+                // Unranked matches are ordered by date only, so ties may come out in another order
+                if (!sameIds(single.get(i++), questions.searchQuestionsWithFilter(query, filter, true)) ||
+                    !single.get(i++).equals(questions.searchQuestionsByRelevance(query, filter, 15, true))) {
+                    mismatches++;
+                    System.out.println("  Mismatch for \"" + query + "\" / " + filter);
+                }
+            }
+        }
+
+        // Status changes after sharding must reach the question's shard
+        Question changed = corpus.get(0);
+        changed.markAsResolved("answer-1");
+        String titleWord = changed.getTitle().split("\\s+")[0].toLowerCase();
+        boolean movedFilter = questions.searchQuestionsWithFilter(titleWord, "resolved", false).contains(changed) &&
+                              !questions.searchQuestionsWithFilter(titleWord, "unresolved", false).contains(changed);
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Shards: " + questions.getSearchShards());
+        System.out.println("  Query/Filter Pairs Checked: " + queries.length * filters.length);
+        System.out.println("  Mismatches: " + mismatches);
+        System.out.println("  Status Change Reached Shard: " + movedFilter);
+        System.out.println();
+
+        printResult(mismatches == 0 && movedFilter && questions.getSearchShards() == 4);
+        System.out.println();
+    }
+
+    private static void testCase12_SearchResultCache() {
+        System.out.println("TEST CASE 12: Search result cache");
+        System.out.println("----------------------------");
+        System.out.println("Question: Are repeated searches served from the cache, and never stale after a change?");
+        System.out.println("Expected: Hits for repeats (any case or spacing), fresh results after add, answer and delete");
+        System.out.println();
+
+        Questions questions = new Questions();
+        List<Question> corpus = buildCorpus(500, 53);
+        for (Question q : corpus) {
+            questions.addQuestion(q);
+        }
+        SearchResultCache<Question> cache = questions.getSearchCache();
+
+        List<Question> first = questions.searchQuestionsWithFilter("javafx", "unanswered");
+        List<Question> repeat = questions.searchQuestionsWithFilter("  JavaFX ", "unanswered");
+        boolean repeatHit = cache.getHits() == 1 && cache.getMisses() == 1 && sameIds(first, repeat);
+
+        // Each change must show up in the next search
+        Question added = new Question("Another JavaFX question", "About layouts", "student");
+        questions.addQuestion(added);
+        boolean seesAdd = questions.searchQuestionsWithFilter("javafx", "unanswered").contains(added);
+        added.incrementTotalAnswers();
+        boolean seesAnswer = !questions.searchQuestionsWithFilter("javafx", "unanswered").contains(added) &&
+                             questions.searchQuestionsWithFilter("javafx", "answered").contains(added);
+        questions.deleteQuestion(added.getQuestionId());
+        boolean seesDelete = !questions.searchQuestionsWithFilter("javafx", "answered").contains(added);
+        boolean matchesUncached = sameIds(questions.searchQuestionsWithFilter("javafx", "unanswered"), first);
+
+        // More distinct queries than the cache holds
+        for (int i = 0; i < cache.getCapacity() + 20; i++) {
+            questions.searchQuestionsWithFilter("query" + i, "all");
+        }
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Repeat Served From Cache: " + repeatHit);
+        System.out.println("  Sees Add / Answer / Delete: " + seesAdd + " / " + seesAnswer + " / " + seesDelete);
+        System.out.println("  Cache: " + cache);
+        System.out.printf("  Hit Rate: %.2f%n", cache.getHitRate());
+        System.out.println();
+
+        boolean passed = repeatHit && seesAdd && seesAnswer && seesDelete && matchesUncached &&
+                         cache.getStaleMisses() >= 3 && cache.getEvictions() > 0 &&
+                         cache.size() == cache.getCapacity();
+        printResult(passed);
+        System.out.println();
+    }
+
+    private static void testCase13_SnippetsAndHighlights() {
+        System.out.println("TEST CASE 13: Snippets and highlights");
+        System.out.println("----------------------------");
+        System.out.println("Question: Does each result show where the keywords matched and the best part of its body?");
+        System.out.println("Expected: Ranges cover the keywords, the snippet holds the densest matches, same with shards");
+        System.out.println();
+
+        StringBuilder body = new StringBuilder("I am new to Java and started the assignment last week.");
+        for (int i = 0; i < 10; i++) {
+            body.append(" The layout code compiles without any warnings at all.");
+        }
+        body.append(" Sorting my ArrayList throws an exception, and sorting a copy of the ArrayList does too.");
+        Question question = new Question("How do I sort an ArrayList?", body.toString(), "student");
+        Question other = new Question("Unrelated title", "Nothing to see here", "student");
+
+        Questions questions = new Questions();
+        questions.addQuestion(question);
+        questions.addQuestion(other);
+
+        List<Question> results = questions.searchQuestions("arraylist SORT");
+        SearchHit hit = questions.highlightMatches(results, "arraylist SORT", false).get(0);
+        List<String> titleWords = highlighted(question.getTitle(), hit.getTitleHighlights());
+        List<String> snippetWords = highlighted(hit.getSnippet(), hit.getSnippetHighlights());
+
+        // A stem is highlighted through the end of its word; the snippet skips the filler
+        boolean titleOk = titleWords.equals(Arrays.asList("sort", "ArrayList"));
+        boolean snippetOk = snippetWords.equals(Arrays.asList("Sorting", "ArrayList", "sorting", "ArrayList")) &&
+                            hit.getSnippet().startsWith("…") &&
+                            hit.getSnippet().length() <= SearchHit.SNIPPET_LENGTH + 2;
+
+        // A misspelling highlights the whole word it matched
+        SearchHit fuzzyHit = questions.highlightMatches(Collections.singletonList(question), "arraylsit", true).get(0);
+        boolean fuzzyOk = highlighted(question.getTitle(), fuzzyHit.getTitleHighlights()).equals(Arrays.asList("ArrayList"));
+
+        // A question without matches gets its body as the snippet and no highlights
+        SearchHit plainHit = questions.highlightMatches(Collections.singletonList(other), "arraylist", false).get(0);
+        boolean plainOk = plainHit.getTitleHighlights().isEmpty() && plainHit.getSnippet().equals("Nothing to see here");
+
+        questions.setSearchShards(4);
+        SearchHit shardedHit = questions.highlightMatches(results, "arraylist SORT", false).get(0);
+        boolean shardedOk = shardedHit.getSnippet().equals(hit.getSnippet()) &&
+                            shardedHit.getSnippetHighlights().equals(hit.getSnippetHighlights()) &&
+                            shardedHit.getTitleHighlights().equals(hit.getTitleHighlights());
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Title Highlights: " + titleWords + " " + hit.getTitleHighlights());
+        System.out.println("  Snippet: " + hit.getSnippet());
+        System.out.println("  Snippet Highlights: " + snippetWords);
+        System.out.println("  Fuzzy / No Match / Sharded: " + fuzzyOk + " / " + plainOk + " / " + shardedOk);
+        System.out.println();
+
+        boolean passed = results.size() == 1 && titleOk && snippetOk && fuzzyOk && plainOk && shardedOk;
+        printResult(passed);
+        System.out.println();
+    }
+
+    private static void testCase14_EnglishAnalysis() {
+        System.out.println("TEST CASE 14: English analysis");
+        System.out.println("----------------------------");
+        System.out.println("Question: Do word endings match each other, and are stopwords ignored?");
+        System.out.println("Expected: \"connecting\" finds \"connects\", \"the\" finds nothing, stems as listed");
+        System.out.println();
+
+        Question connect = new Question("Connecting to the H2 database", "My code connects once and then fails", "student");
+        Question pool = new Question("Connection pool question", "Which pool size should I use?", "student");
+        Question layout = new Question("How is the layout computed?", "The scene is empty.", "student");
+
+        Questions english = new Questions();
+        Questions whitespace = new Questions();
+        whitespace.setAnalyzer(new WhitespaceAnalyzer());
+        for (Question q : Arrays.asList(connect, pool, layout)) {
+            english.addQuestion(q);
+            whitespace.addQuestion(q);
+        }
+
+        boolean stemsMatch = english.searchQuestions("connected").containsAll(Arrays.asList(connect, pool)) &&
+                             english.searchQuestions("connects").size() == 2 &&
+                             whitespace.searchQuestions("connected").isEmpty();
+        int englishThe = english.searchQuestions("the").size();
+        int whitespaceThe = whitespace.searchQuestions("the").size();
+        boolean stopwordsDropped = englishThe == 0 && whitespaceThe == 2 &&
+                                   sameIds(english.searchQuestions("the layout"), Collections.singletonList(layout));
+
+        // Queries analyzed to the same keywords share a cache entry
+        english.searchQuestionsWithFilter("Connecting", "all");
+        english.searchQuestionsWithFilter("the connects", "all");
+        boolean sharedCacheEntry = english.getSearchCache().getHits() == 1;
+
+        String[][] stems = {{"queries", "query"}, {"classes", "class"}, {"loops", "loop"}, {"running", "run"},
+                            {"created", "create"}, {"connecting", "connect"}, {"speed", "speed"}, {"add", "add"}};
+        List<String> wrongStems = new ArrayList<>();
+        for (String[] stem : stems) {
+            if (!EnglishAnalyzer.stem(stem[0]).equals(stem[1])) {
+                wrongStems.add(stem[0] + " -> " + EnglishAnalyzer.stem(stem[0]));
+            }
+        }
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Tokens: " + new EnglishAnalyzer().analyze(connect.getTitle()));
+        System.out.println("  \"connected\" Matches Other Endings: " + stemsMatch);
+        System.out.println("  \"the\" Results (English / Whitespace): " + englishThe + " / " + whitespaceThe);
+        System.out.println("  Shared Cache Entry: " + sharedCacheEntry);
+        System.out.println("  Wrong Stems: " + wrongStems);
+        System.out.println();
+
+        boolean passed = stemsMatch && stopwordsDropped && sharedCacheEntry && wrongStems.isEmpty();
+        printResult(passed);
+        System.out.println();
+    }
+
+    private static void testCase15_BooleanQueries() {
+        System.out.println("TEST CASE 15: Boolean and phrase queries");
+        System.out.println("----------------------------");
+        System.out.println("Question: Do AND, NOT, phrases and fields find exactly the questions they describe?");
+        System.out.println("Expected: Same matches as checking every question, with one shard or several");
+        System.out.println();
+
+        // Whitespace analyzer, so the reference can use plain substring checks
+        Questions questions = new Questions();
+        questions.setAnalyzer(new WhitespaceAnalyzer());
+        List<Question> corpus = buildCorpus(500, 61);
+        for (Question q : corpus) {
+            questions.addQuestion(q);
+        }
+
+        Map<String, java.util.function.Predicate<Question>> queries = new LinkedHashMap<>();
+        queries.put("java AND tableview", q -> has(q, "java") && has(q, "tableview"));
+        queries.put("database -h2", q -> has(q, "database") && !has(q, "h2"));
+        queries.put("database NOT h2 recursion", q -> (has(q, "database") || has(q, "recursion")) && !has(q, "h2"));
+        queries.put("title:thread AND scanner", q -> q.getTitle().toLowerCase().contains("thread") && has(q, "scanner"));
+        queries.put("body:db", q -> q.getBody().toLowerCase().contains("db"));
+        queries.put("-java", q -> !has(q, "java"));
+        queries.put("(recursion OR thread) AND db", q -> (has(q, "recursion") || has(q, "thread")) && has(q, "db"));
+        queries.put("author:user3 AND java", q -> q.getAuthor().equals("user3") && has(q, "java"));
+        queries.put("\"cell factories\"", q -> hasPhrase(q.getTitle(), "cell factories") || hasPhrase(q.getBody(), "cell factories"));
+        queries.put("title:\"h2 database\" -input", q -> hasPhrase(q.getTitle(), "h2 database") && !has(q, "input"));
+
+        int mismatches = 0;
+        for (int shards : new int[] {1, 4}) {
+            questions.setSearchShards(shards);
+            for (Map.Entry<String, java.util.function.Predicate<Question>> query : queries.entrySet()) {
+                List<Question> expected = corpus.stream().filter(query.getValue()).collect(Collectors.toList());
+                List<Question> actual = questions.searchQuestions(query.getKey());
+                if (!sameIds(expected, actual)) {
+                    mismatches++;
+                    System.out.println("  Mismatch for " + query.getKey() + " (" + shards + " shards): expected " +
+                                       expected.size() + ", got " + actual.size());
+                }
+            }
+        }
+
+        // Ranked results of a boolean query still satisfy it
+        List<Question> ranked = questions.searchQuestionsByRelevance("java AND tableview -db", "all", 10);
+        boolean rankedOk = !ranked.isEmpty() && ranked.stream()
+                .allMatch(q -> has(q, "java") && has(q, "tableview") && !has(q, "db"));
+
+        // The motivating example, with the default English analyzer
+        Questions english = new Questions();
+        Question wanted = new Question("Custom cell factories in a TableView", "How do I style rows?", "student");
+        Question withFxml = new Question("Custom cell factories in a TableView", "Defined in FXML", "student");
+        Question scattered = new Question("Cell editing", "Custom TableView factories", "student");
+        for (Question q : Arrays.asList(wanted, withFxml, scattered)) {
+            english.addQuestion(q);
+        }
+        List<Question> example = english.searchQuestions("\"custom cell factories\" AND tableview -fxml");
+        boolean exampleOk = example.size() == 1 && example.get(0) == wanted;
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Queries Checked: " + queries.size() * 2);
+        System.out.println("  Mismatches: " + mismatches);
+        System.out.println("  Parsed: " + new QueryParser(new EnglishAnalyzer()).parse("\"custom cell factories\" AND tableview -fxml"));
+        System.out.println("  Ranked Results Satisfy Query: " + rankedOk + " (" + ranked.size() + ")");
+        System.out.println("  Example Query: " + example.size() + " result(s)");
+        System.out.println();
+
+        printResult(mismatches == 0 && rankedOk && exampleOk);
+        System.out.println();
+    }
+
+    private static void testCase16_PhrasesAfterManyOccurrences() {
+        System.out.println("TEST CASE 16: Phrases after many occurrences of a term");
+        System.out.println("----------------------------");
+        System.out.println("Question: Is a phrase found when its first word occurs more than " +
+                           SearchIndex.MAX_OCCURRENCES + " times before it?");
+        System.out.println("Expected: Phrases late in a long body match, words in the wrong order do not");
+        System.out.println();
+
+        // The phrase starts at the 41st "array", far (over 127 words) from the 40th
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            body.append("array ");
+        }
+        for (int i = 0; i < 150; i++) {
+            body.append("filler ");
+        }
+        body.append("array deque versus linked nodes");
+        Question late = new Question("Choosing a queue", body.toString(), "student");
+        Question other = new Question("Deque array", "Which array is fastest?", "student");
+
+        int[] found = new int[4];
+        for (int shards : new int[] {1, 4}) {
+            Questions questions = new Questions();
+            questions.setSearchShards(shards);
+            questions.addQuestion(late);
+            questions.addQuestion(other);
+            found[0] += questions.searchQuestions("\"array deque\"").size();
+            found[1] += questions.searchQuestions("body:\"array deque versus\"").size();
+            found[2] += questions.searchQuestions("\"deque array\"").size();
+            found[3] += questions.searchQuestions("\"filler deque\"").size();
+        }
+
+        // Output
+        System.out.println("Output:");
+        System.out.println("  Body Length: " + body.length());
+        System.out.println("  \"array deque\": " + found[0] / 2 + ", \"array deque versus\" in body: " + found[1] / 2);
+        System.out.println("  \"deque array\": " + found[2] / 2 + ", \"filler deque\": " + found[3] / 2);
+        System.out.println();
+
+        // "deque array" is only the other question's title
+        printResult(found[0] == 2 && found[1] == 2 && found[2] == 2 && found[3] == 0);
+        System.out.println();
+    }
+
+    // Reference: the keyword appears in the title or body
+    private static boolean has(Question q, String keyword) {
+        return q.getTitle().toLowerCase().contains(keyword) || q.getBody().toLowerCase().contains(keyword);
+    }
+
+    // Reference: the words of the phrase appear next to each other
+    private static boolean hasPhrase(String text, String phrase) {
+        return (" " + String.join(" ", text.toLowerCase().split("\\s+")) + " ").contains(" " + phrase + " ");
+    }
+
+    // The highlighted parts of a text
+    private static List<String> highlighted(String text, List<SearchHit.Range> ranges) {
+        List<String> words = new ArrayList<>();
+        for (SearchHit.Range range : ranges) {
+            words.add(text.substring(range.getStart(), range.getEnd()));
+        }
+        return words;
+    }
+
+    // Reference: the filter applied to a finished result list
+    private static boolean passes(Question q, String filter) {
+        switch (filter) {
+            case "unresolved":
+                return !q.isResolved();
+            case "answered":
+                return q.getTotalAnswers() > 0;
+            case "unanswered":
+                return q.getTotalAnswers() == 0;
+            default:
+                return true;
+        }
+    }
+
+    // Reference: some whitespace-separated word is a typo or two away from the keyword
+    private static boolean hasWordNear(String text, String keyword) {
+        int maxEdits = keyword.length() < 8 ? 1 : 2;
+        for (String word : text.toLowerCase().split("\\s+")) {
+            if (word.contains(keyword) || SearchIndex.withinEditDistance(keyword, word, maxEdits)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasWordStartingWith(String title, String prefix) {
+        for (String word : title.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (word.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Builds a reproducible set of questions from a small vocabulary
+    static List<Question> buildCorpus(int size, long seed) {
+        String[] words = {"Java", "javafx", "TableView", "cell", "factories", "ArrayList", "LinkedList",
+                          "NullPointerException", "H2", "database", "connect", "list?", "O(1)", "a",
+                          "the", "input", "validation", "Scanner", "thread", "recursion", "db"};
+        Random random = new Random(seed);
+        List<Question> corpus = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            corpus.add(new Question(randomText(random, words, 6), randomText(random, words, 30),
+                                    "user" + random.nextInt(20)));
+        }
+        return corpus;
+    }
+
+    private static String randomText(Random random, String[] words, int maxWords) {
+        StringBuilder text = new StringBuilder();
+        int count = 1 + random.nextInt(maxWords);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(random.nextInt(10) == 0 ? "\n" : " ");
+            }
+            text.append(words[random.nextInt(words.length)]);
+        }
+        return text.toString();
+    }
+
+    // Reference implementation: the original full-scan substring search
+    private static List<Question> scan(List<Question> corpus, String query) {
+        String[] keywords = query.toLowerCase().trim().split("\\s+");
+        return corpus.stream()
+                .filter(q -> {
+                    for (String keyword : keywords) {
+                        if (q.getTitle().toLowerCase().contains(keyword) ||
+                            q.getBody().toLowerCase().contains(keyword)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static boolean sameIds(List<Question> expected, List<Question> actual) {
+        Set<String> expectedIds = expected.stream().map(Question::getQuestionId).collect(Collectors.toSet());
+        Set<String> actualIds = actual.stream().map(Question::getQuestionId).collect(Collectors.toSet());
+        return expected.size() == actual.size() && expectedIds.equals(actualIds);
+    }
+
+    // Helper method to print test result
+    private static void printResult(boolean passed) {
+        totalTests++;
+        if (passed) {
+            System.out.println("Status: PASS ✓");
+            passedTests++;
+        } else {
+            System.out.println("Status: FAIL ✗");
+            failedTests++;
+        }
+    }
+
+    // Print test summary
+    private static void printSummary() {
+        System.out.println("==========================================");
+        System.out.println("TEST SUMMARY");
+        System.out.println("==========================================");
+        System.out.println("Total Tests: " + totalTests);
+        System.out.println("Passed: " + passedTests);
+        System.out.println("Failed: " + failedTests);
+        System.out.println();
+
+        if (failedTests == 0) {
+            System.out.println("Result: ALL TESTS PASSED ✓✓✓");
+        } else {
+            System.out.println("Result: SOME TESTS FAILED ✗");
+        }
+    }
+}
\ No newline at end of file
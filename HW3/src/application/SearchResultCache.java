@@ -0,0 +1,162 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Our SearchResultCache class remembers the results of recent searches so repeated
+ * queries are answered without searching again. Each result is stored with the version
+ * of the collection it was computed from; once the collection changes, the stored
+ * result no longer matches the current version and is recomputed on its next use.
+ * The least recently used result is evicted when the cache is full.
+ *
+ * Hit, miss and eviction counts are kept so the cache can be sized.
+ */
+public class SearchResultCache<T> {
+
+    // Default number of results kept
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private final int capacity;
+
+    // Query key -> result, least recently used first
+    private final LinkedHashMap<String, Entry<T>> entries;
+
+    private long hits;
+    private long misses;
+    private long staleMisses;
+    private long evictions;
+
+    /**
+     * Constructor creates an empty cache.
+     *
+     * capacity Maximum number of results to keep (at least 1)
+     */
+    public SearchResultCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new LinkedHashMap<String, Entry<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                if (size() > SearchResultCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    //Lookups
+
+    /**
+     * Gets a cached result if it was computed at the current version.
+     *
+     * key The normalized query key
+     * version The collection's current version
+     * return Copy of the cached result, or null on a miss
+     */
+    public synchronized List<T> get(String key, long version) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.version != version) {
+            // Computed before the collection last changed
+            entries.remove(key);
+            misses++;
+            staleMisses++;
+            return null;
+        }
+        hits++;
+        return new ArrayList<>(entry.results);
+    }
+
+    /**
+     * Stores a result computed at a given version. The version must have been read
+     * before the search started, so a change made during the search makes it stale.
+     *
+     * key The normalized query key
+     * version The collection's version when the search started
+     * results The search results
+     */
+    public synchronized void put(String key, long version, List<T> results) {
+        Entry<T> current = entries.get(key);
+        if (current != null && current.version > version) {
+            return;
+        }
+        entries.put(key, new Entry<>(version, Collections.unmodifiableList(new ArrayList<>(results))));
+    }
+
+    /**
+     * Removes every cached result (the counters are kept).
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    //Metrics
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of misses caused by the collection changing since the result was cached.
+     *
+     * return Stale misses
+     */
+    public synchronized long getStaleMisses() {
+        return staleMisses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the fraction of lookups answered from the cache.
+     *
+     * return Hits divided by lookups (0 before any lookup)
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SearchResultCache{" +
+                "size=" + entries.size() + "/" + capacity +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", stale=" + staleMisses +
+                ", evictions=" + evictions +
+                '}';
+    }
+
+    private static final class Entry<T> {
+        final long version;
+        final List<T> results;
+
+        Entry(long version, List<T> results) {
+            this.version = version;
+            this.results = results;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,284 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Our SearchService class runs searches and search-as-you-type lookups off the UI thread.
+ * Each request runs on the service's own worker threads and returns a CompletableFuture;
+ * its result is also handed to a callback on the callback executor (Platform::runLater in
+ * the dashboard), so the window stays responsive while a slow query runs.
+ *
+ * Searches and suggestions are separate streams. Starting a request cancels the previous
+ * request of the same stream: if it is still queued it never runs, and if it is already
+ * running its result is dropped instead of delivered. A callback therefore only ever sees
+ * the result of the newest request.
+ */
+public class SearchService implements AutoCloseable {
+
+    // Worker threads: one search and one suggestion lookup can run at the same time
+    private static final int WORKER_THREADS = 2;
+
+    private final Questions questions;
+    private final ExecutorService workers;
+    private final Executor callbackExecutor;
+
+    // Newest request of each stream
+    private final AtomicReference<CompletableFuture<?>> currentSearch = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<?>> currentSuggestion = new AtomicReference<>();
+
+    private final AtomicLong cancelled = new AtomicLong();
+
+    /**
+     * Constructor creates a service with its own worker threads.
+     *
+     * questions The collection to search
+     * callbackExecutor Where result callbacks run (e.g. Platform::runLater)
+     */
+    public SearchService(Questions questions, Executor callbackExecutor) {
+        this(questions, Executors.newFixedThreadPool(WORKER_THREADS, workerFactory()), callbackExecutor);
+    }
+
+    /**
+     * Constructor creates a service running requests on the given workers.
+     *
+     * questions The collection to search
+     * workers Where searches run; shut down when the service is closed
+     * callbackExecutor Where result callbacks run (e.g. Platform::runLater)
+     */
+    public SearchService(Questions questions, ExecutorService workers, Executor callbackExecutor) {
+        this.questions = questions;
+        this.workers = workers;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    //Requests
+
+    /**
+     * Searches in the background, cancelling the previous search.
+     *
+     * query The search keywords
+     * filter Filter option: "all", "unresolved", "answered", "unanswered"
+     * byRelevance true for the best matches by relevance, false for every match, most recent first
+     * fuzzy true to tolerate misspelled keywords
+     * limit Maximum number of results when ranking by relevance, and of results highlighted
+     *       up front otherwise (the rest are highlighted a page at a time, see Results.getHits)
+     * onResults Receives the results on the callback executor, unless a newer search started
+     * return Future of the results (cancelled if a newer search starts first)
+     */
+    public CompletableFuture<Results> search(String query, String filter, boolean byRelevance, boolean fuzzy,
+                                             int limit, Consumer<Results> onResults) {
+        return submit(currentSearch, () -> {
+            List<Question> found = byRelevance
+                ? questions.searchQuestionsByRelevance(query, filter, limit, fuzzy)
+                : questions.searchQuestionsWithFilter(query, filter, fuzzy);
+            Results results = new Results(questions, query, byRelevance, fuzzy, found);
+            // Highlighting reads each body, so only the first page is highlighted here
+            results.getHits(0, limit);
+            return results;
+        }, onResults);
+    }
+
+    /**
+     * Looks up search-as-you-type suggestions in the background, cancelling the previous lookup.
+     *
+     * partialQuery The text typed so far
+     * limit Maximum number of completions and of questions
+     * onSuggestions Receives the suggestions on the callback executor, unless a newer lookup started
+     * return Future of the suggestions (cancelled if a newer lookup starts first)
+     */
+    public CompletableFuture<Suggestions> suggest(String partialQuery, int limit, Consumer<Suggestions> onSuggestions) {
+        return submit(currentSuggestion, () -> new Suggestions(partialQuery,
+                questions.suggestCompletions(partialQuery, limit),
+                questions.suggestQuestions(partialQuery, limit)), onSuggestions);
+    }
+
+    /**
+     * Cancels the pending suggestion lookup, e.g. when a search is started.
+     */
+    public void cancelSuggestions() {
+        cancel(currentSuggestion.getAndSet(null));
+    }
+
+    /**
+     * Cancels the pending search and suggestion lookup, e.g. when leaving the search view.
+     */
+    public void cancelAll() {
+        cancel(currentSearch.getAndSet(null));
+        cancelSuggestions();
+    }
+
+    /**
+     * Gets the number of requests cancelled because a newer one replaced them.
+     *
+     * return Cancelled requests
+     */
+    public long getCancelledCount() {
+        return cancelled.get();
+    }
+
+    /**
+     * Cancels pending requests and stops the worker threads.
+     */
+    @Override
+    public void close() {
+        cancelAll();
+        workers.shutdownNow();
+    }
+
+    //Helper Methods
+
+    // Makes a request the newest of its stream and queues it
+    private <T> CompletableFuture<T> submit(AtomicReference<CompletableFuture<?>> stream, Supplier<T> lookup,
+                                            Consumer<T> callback) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        cancel(stream.getAndSet(future));
+
+        try {
+            workers.execute(() -> {
+                // Replaced while still queued
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(lookup.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+
+        future.whenComplete((result, error) -> {
+            if (error == null) {
+                // Checked again on the callback thread, where a newer request may have started meanwhile
+                callbackExecutor.execute(() -> {
+                    if (stream.get() == future) {
+                        callback.accept(result);
+                    }
+                });
+            } else if (!(error instanceof CancellationException) && !(error.getCause() instanceof CancellationException)) {
+                System.err.println("Search failed: " + (error instanceof CompletionException ? error.getCause() : error));
+            }
+        });
+        return future;
+    }
+
+    private void cancel(CompletableFuture<?> future) {
+        if (future != null && future.cancel(false)) {
+            cancelled.incrementAndGet();
+        }
+    }
+
+    // Daemon threads, so a search in progress never keeps the application from exiting
+    private static ThreadFactory workerFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "search-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Results of one search: the matching questions and their highlights. Highlights are
+     * built a page at a time as they are asked for, since each one reads a question's body
+     * (from disk when bodies are in a BodyStore).
+     */
+    public static final class Results {
+        private final Questions source;
+        private final String query;
+        private final boolean byRelevance;
+        private final boolean fuzzy;
+        private final List<Question> questions;
+        // Highlights of the first hits.size() questions, built so far
+        private final List<SearchHit> hits;
+
+        Results(Questions source, String query, boolean byRelevance, boolean fuzzy, List<Question> questions) {
+            this.source = source;
+            this.query = query;
+            this.byRelevance = byRelevance;
+            this.fuzzy = fuzzy;
+            this.questions = Collections.unmodifiableList(questions);
+            this.hits = new ArrayList<>();
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public boolean isByRelevance() {
+            return byRelevance;
+        }
+
+        public List<Question> getQuestions() {
+            return questions;
+        }
+
+        /**
+         * Gets the highlights built so far: those of the first page and of any page asked for since.
+         *
+         * return Read-only copy, in result order
+         */
+        public synchronized List<SearchHit> getHits() {
+            return Collections.unmodifiableList(new ArrayList<>(hits));
+        }
+
+        /**
+         * Gets the highlights of a range of results, building any not built yet.
+         *
+         * from Index of the first result
+         * to Index after the last result (clamped to the number of results)
+         * return Read-only list of the highlights, in result order
+         */
+        public synchronized List<SearchHit> getHits(int from, int to) {
+            int end = Math.min(to, questions.size());
+            if (end > hits.size()) {
+                hits.addAll(source.highlightMatches(questions.subList(hits.size(), end), query, fuzzy));
+            }
+            return Collections.unmodifiableList(new ArrayList<>(hits.subList(Math.min(from, end), end)));
+        }
+    }
+
+    /**
+     * Search-as-you-type suggestions for the text typed so far.
+     */
+    public static final class Suggestions {
+        private final String partialQuery;
+        private final List<String> completions;
+        private final List<Question> questions;
+
+        Suggestions(String partialQuery, List<String> completions, List<Question> questions) {
+            this.partialQuery = partialQuery;
+            this.completions = Collections.unmodifiableList(completions);
+            this.questions = Collections.unmodifiableList(questions);
+        }
+
+        public String getPartialQuery() {
+            return partialQuery;
+        }
+
+        public List<String> getCompletions() {
+            return completions;
+        }
+
+        public List<Question> getQuestions() {
+            return questions;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package application;
+
+import java.util.Random;
+
+/**
+ * Measures ranked and unranked search time on a large generated collection with the
+ * search index split into 1, 2, 4, 8 and 16 shards, and prints the speedup over a
+ * single index. Speedup is bounded by the number of available cores.
+ */
+public class SearchShardBenchmark {
+
+    private static final int QUESTIONS = 100_000;
+    private static final int ROUNDS = 5;
+    private static final int[] SHARD_COUNTS = {1, 2, 4, 8, 16};
+
+    private static final String[] WORDS = {"java", "javafx", "tableview", "arraylist", "hashmap", "thread",
+            "recursion", "database", "h2", "sql", "query", "exception", "nullpointer", "scanner", "loop",
+            "array", "string", "stream", "lambda", "interface", "class", "object", "method", "static",
+            "button", "scene", "stage", "layout", "event", "listener", "file", "input", "output", "test",
+            "junit", "maven", "gradle", "compile", "error", "debug", "index", "sort", "search", "tree"};
+
+    private static final String[] QUERIES = {"java", "javafx tableview", "h2 database", "nullpointer exception",
+            "recursion", "hashmap thread", "sort search tree", "scanner input loop"};
+
+    public static void main(String[] args) {
+        System.out.println("Sharded search benchmark (" + QUESTIONS + " questions, " +
+                           Runtime.getRuntime().availableProcessors() + " cores)");
+
+        Questions questions = new Questions();
+        Random random = new Random(42);
+        for (int i = 0; i < QUESTIONS; i++) {
+            questions.addQuestion(new Question(text(random, 8), text(random, 60), "user" + random.nextInt(500)));
+        }
+
+        double baseline = 0;
+        for (int shards : SHARD_COUNTS) {
+            questions.setSearchShards(shards);
+
+            // Warm up, then time
+            run(questions, 3);
+            long start = System.nanoTime();
+            int hits = run(questions, ROUNDS);
+            double millis = (System.nanoTime() - start) / 1e6 / (ROUNDS * QUERIES.length);
+            if (shards == 1) {
+                baseline = millis;
+            }
+            System.out.printf("%2d shards: %7.2f ms per query, speedup %.2fx (%d hits)%n",
+                              shards, millis, baseline / millis, hits);
+        }
+    }
+
+    // Runs every query ranked and unranked the given number of times. The result cache is
+    // emptied before each round, so every search reaches the shards instead of the cache.
+    private static int run(Questions questions, int rounds) {
+        int hits = 0;
+        for (int round = 0; round < rounds; round++) {
+            questions.getSearchCache().clear();
+            for (String query : QUERIES) {
+                hits += questions.searchQuestionsByRelevance(query, "all", 20).size();
+                hits += questions.searchQuestionsWithFilter(query, "unanswered").size();
+            }
+        }
+        return hits;
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString().trim();
+    }
+}
\ No newline at end of file
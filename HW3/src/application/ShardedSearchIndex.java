@@ -0,0 +1,246 @@
+package application;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Our ShardedSearchIndex class splits the search index into shards by question ID hash.
+ * Each shard is an ordinary SearchIndex with its own lock, so posting to different
+ * shards does not contend, and a query fans out to every shard on a ForkJoinPool.
+ *
+ * Ranked searches run in two rounds: the shards first report their corpus statistics
+ * for the query's terms, which are summed so every shard scores with the numbers of the
+ * whole collection; then each shard returns its own top results and those are merged.
+ * Rankings are therefore the same as from a single index.
+ *
+ * With one shard every call goes straight to the single index on the calling thread.
+ */
+public class ShardedSearchIndex {
+
+    private final SearchIndex[] shards;
+    private final ForkJoinPool pool;
+    private final Analyzer analyzer;
+
+    /**
+     * Constructor creates an index of stemmed English terms with the given number
+     * of shards, fanning out on the common ForkJoinPool.
+     *
+     * shardCount Number of shards (at least 1)
+     */
+    public ShardedSearchIndex(int shardCount) {
+        this(shardCount, new EnglishAnalyzer());
+    }
+
+    /**
+     * Constructor creates an index with the given number of shards and analyzer,
+     * fanning out on the common ForkJoinPool.
+     *
+     * shardCount Number of shards (at least 1)
+     * analyzer Turns titles and bodies into terms (shared by every shard)
+     */
+    public ShardedSearchIndex(int shardCount, Analyzer analyzer) {
+        this(shardCount, analyzer, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor creates an index with the given number of shards, analyzer and pool.
+     *
+     * shardCount Number of shards (at least 1)
+     * analyzer Turns titles and bodies into terms (shared by every shard)
+     * pool The pool queries fan out on
+     */
+    public ShardedSearchIndex(int shardCount, Analyzer analyzer, ForkJoinPool pool) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1: " + shardCount);
+        }
+        this.shards = new SearchIndex[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new SearchIndex(analyzer);
+        }
+        this.pool = pool;
+        this.analyzer = analyzer;
+    }
+
+    //Index Maintenance
+
+    public void addQuestion(Question question) {
+        shardFor(question.getQuestionId()).addQuestion(question);
+    }
+
+    public void updateQuestion(Question question) {
+        shardFor(question.getQuestionId()).updateQuestion(question);
+    }
+
+    public void removeQuestion(String questionId) {
+        shardFor(questionId).removeQuestion(questionId);
+    }
+
+    public void updateStatus(Question question) {
+        shardFor(question.getQuestionId()).updateStatus(question);
+    }
+
+    public void clear() {
+        for (SearchIndex shard : shards) {
+            shard.clear();
+        }
+    }
+
+    //Lookups
+
+    /**
+     * Finds the questions matching any of the given keywords that pass a status filter,
+     * searching every shard in parallel.
+     *
+     * keywords The analyzed search keywords
+     * fuzzy true to also match terms within a small edit distance of a keyword
+     * filter The status filter to apply
+     * return IDs of the matching questions that pass the filter
+     */
+    public Set<String> search(String[] keywords, boolean fuzzy, SearchIndex.StatusFilter filter) {
+        if (shards.length == 1) {
+            return shards[0].search(keywords, fuzzy, filter);
+        }
+        Set<String> ids = new HashSet<>();
+        for (Set<String> shardIds : fanOut(shard -> shard.search(keywords, fuzzy, filter))) {
+            ids.addAll(shardIds);
+        }
+        return ids;
+    }
+
+    /**
+     * Finds the questions matching a parsed query that pass a status filter,
+     * evaluating the query on every shard in parallel.
+     *
+     * query The parsed query
+     * fuzzy true to also match terms within a small edit distance of a word
+     * filter The status filter to apply
+     * return IDs of the matching questions that pass the filter
+     */
+    public Set<String> search(QueryParser.Node query, boolean fuzzy, SearchIndex.StatusFilter filter) {
+        if (shards.length == 1) {
+            return shards[0].search(query, fuzzy, filter);
+        }
+        Set<String> ids = new HashSet<>();
+        for (Set<String> shardIds : fanOut(shard -> shard.search(query, fuzzy, filter))) {
+            ids.addAll(shardIds);
+        }
+        return ids;
+    }
+
+    /**
+     * Ranked search over every shard. Shards score with collection-wide statistics,
+     * return their own top `limit` results, and the best `limit` of those are kept.
+     *
+     * keywords The analyzed search keywords
+     * fuzzy true to also match terms within a small edit distance of a keyword
+     * limit Maximum number of IDs to return
+     * filter The status filter to apply
+     * return IDs of the best matching questions, highest score first
+     */
+    public List<String> searchRanked(String[] keywords, boolean fuzzy, int limit, SearchIndex.StatusFilter filter) {
+        return searchRanked(keywords, fuzzy, limit, filter, id -> true);
+    }
+
+    /**
+     * Ranked search over every shard, also restricted by a predicate (e.g. the
+     * matches of a parsed query).
+     *
+     * keywords The analyzed search keywords
+     * fuzzy true to also match terms within a small edit distance of a keyword
+     * limit Maximum number of IDs to return
+     * filter The status filter to apply
+     * accept Predicate deciding which question IDs may be returned
+     * return IDs of the best matching questions, highest score first
+     */
+    public List<String> searchRanked(String[] keywords, boolean fuzzy, int limit, SearchIndex.StatusFilter filter,
+                                     Predicate<String> accept) {
+        if (shards.length == 1) {
+            return shards[0].searchRanked(keywords, fuzzy, limit, filter, accept);
+        }
+
+        SearchIndex.CorpusStats stats = new SearchIndex.CorpusStats();
+        for (SearchIndex.CorpusStats shardStats : fanOut(shard -> shard.corpusStats(keywords, fuzzy))) {
+            stats.add(shardStats);
+        }
+
+        List<Map.Entry<String, Double>> candidates = new ArrayList<>();
+        for (List<Map.Entry<String, Double>> shardBest : fanOut(shard -> shard.rank(keywords, fuzzy, limit, filter, accept, stats))) {
+            candidates.addAll(shardBest);
+        }
+
+        List<String> ranked = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : SearchIndex.topScores(candidates, limit)) {
+            ranked.add(entry.getKey());
+        }
+        return ranked;
+    }
+
+    /**
+     * Finds where the keywords matched in each question, asking the shard that
+     * indexed it.
+     *
+     * questions The questions to highlight
+     * keywords The analyzed search keywords
+     * fuzzy true if the search tolerated misspelled keywords
+     * return One hit per question, in the same order
+     */
+    public List<SearchHit> highlight(List<Question> questions, String[] keywords, boolean fuzzy) {
+        if (shards.length == 1) {
+            return shards[0].highlight(questions, keywords, fuzzy);
+        }
+
+        Map<SearchIndex, List<Question>> byShard = new HashMap<>();
+        for (Question question : questions) {
+            byShard.computeIfAbsent(shardFor(question.getQuestionId()), s -> new ArrayList<>()).add(question);
+        }
+        Map<Question, SearchHit> hits = new IdentityHashMap<>();
+        for (Map.Entry<SearchIndex, List<Question>> entry : byShard.entrySet()) {
+            for (SearchHit hit : entry.getKey().highlight(entry.getValue(), keywords, fuzzy)) {
+                hits.put(hit.getQuestion(), hit);
+            }
+        }
+
+        List<SearchHit> ordered = new ArrayList<>(questions.size());
+        for (Question question : questions) {
+            ordered.add(hits.get(question));
+        }
+        return ordered;
+    }
+
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public boolean isIndexed(String questionId) {
+        return shardFor(questionId).isIndexed(questionId);
+    }
+
+    //Helper Methods
+
+    private SearchIndex shardFor(String questionId) {
+        return shards[Math.floorMod(questionId.hashCode(), shards.length)];
+    }
+
+    // Runs a lookup on every shard: all but the first on the pool, the first on this thread
+    private <T> List<T> fanOut(Function<SearchIndex, T> lookup) {
+        List<ForkJoinTask<T>> tasks = new ArrayList<>(shards.length - 1);
+        for (int i = 1; i < shards.length; i++) {
+            SearchIndex shard = shards[i];
+            tasks.add(pool.submit(() -> lookup.apply(shard)));
+        }
+
+        List<T> results = new ArrayList<>(shards.length);
+        results.add(lookup.apply(shards[0]));
+        for (ForkJoinTask<T> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+}
\ No newline at end of file
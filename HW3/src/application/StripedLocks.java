@@ -0,0 +1,96 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Our StripedLocks class hands out one of a fixed number of locks per key.
+ * Writers touching different questions (or answers) usually get different locks and
+ * proceed in parallel, while writers touching the same key are serialized.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+
+    /**
+     * Constructor creates the given number of locks.
+     *
+     * stripes Number of locks to spread keys over
+     */
+    public StripedLocks(int stripes) {
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Gets the lock guarding a key.
+     *
+     * key The key (e.g. a question ID)
+     * return The lock for that key's stripe
+     */
+    public ReentrantLock lockFor(String key) {
+        return locks[stripeOf(key)];
+    }
+
+    /**
+     * Acquires every stripe, always in the same order so callers cannot deadlock.
+     * Used by operations that touch every key, such as clearing a collection.
+     */
+    public void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Releases every stripe acquired by lockAll.
+     */
+    public void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Acquires the stripes of several keys, each once and in the same order as lockAll,
+     * so batch operations cannot deadlock with each other or with lockAll.
+     *
+     * keys The keys (e.g. the IDs of questions being deleted together)
+     * return The acquired locks, to be passed to unlock
+     */
+    public List<ReentrantLock> lockEach(Collection<String> keys) {
+        boolean[] needed = new boolean[locks.length];
+        for (String key : keys) {
+            needed[stripeOf(key)] = true;
+        }
+        List<ReentrantLock> held = new ArrayList<>();
+        for (int i = 0; i < locks.length; i++) {
+            if (needed[i]) {
+                locks[i].lock();
+                held.add(locks[i]);
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Releases locks acquired by lockEach.
+     *
+     * held The locks returned by lockEach
+     */
+    public void unlock(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+
+    private int stripeOf(String key) {
+        int hash = key == null ? 0 : key.hashCode();
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, locks.length);
+    }
+}
\ No newline at end of file
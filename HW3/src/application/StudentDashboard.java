@@ -7,6 +7,12 @@ import javafx.stage.Stage;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.paint.Color;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+import java.io.IOException;
 import java.util.Comparator;
 
 import databasePart1.*;
@@ -28,9 +34,23 @@ public class StudentDashboard {
     private static final String TEXT_PRIMARY = "#000000";
     private static final String TEXT_SECONDARY = "#666666";
     
+    // Number of results shown when searching by relevance, and per page of other searches
+    private static final int RELEVANCE_RESULT_LIMIT = 50;
+    
+    // Number of questions loaded into the questions list at a time
+    private static final int QUESTIONS_PAGE_SIZE = 20;
+    
+    // Search-as-you-type: pause after the last keystroke before suggesting, and suggestions shown
+    private static final int TYPEAHEAD_DELAY_MS = 150;
+    private static final int TYPEAHEAD_SUGGESTIONS = 5;
+    
+    // Number of similar questions suggested while asking a question
+    private static final int SIMILAR_QUESTIONS_LIMIT = 5;
+    
     private static Questions sharedQuestions = null;
     private static Answers sharedAnswers = null;
     private static Replies sharedReplies = null; 
+    private static SearchService sharedSearchService = null;
     
     private DatabaseHelper databaseHelper;
     private User currentUser;
@@ -41,6 +61,13 @@ public class StudentDashboard {
     private String currentView;
     private Question selectedQuestion;
     private Replies replies; 
+    private QuestionThreads threads;
+    private SearchService searchService;
+    
+    // Paging state of the questions list in the right panel
+    private String listFilter;
+    private QuestionPage.Cursor listCursor;
+    private boolean listHasMore;
     
     public StudentDashboard(DatabaseHelper databaseHelper, User currentUser) {
         this.databaseHelper = databaseHelper;
@@ -50,8 +77,21 @@ public class StudentDashboard {
         synchronized (StudentDashboard.class) {
             if (sharedQuestions == null) {
                 sharedQuestions = new Questions();
+                sharedQuestions.setNearDuplicateDetection(true);
                 sharedAnswers = new Answers();
                 sharedReplies = new Replies(); 
+                
+                // Keep bodies on disk and only recently viewed ones in memory
+                try {
+                    BodyStore bodies = BodyStore.createTemporary();
+                    sharedQuestions.setBodyStore(bodies);
+                    sharedAnswers.setBodyStore(bodies);
+                } catch (IOException e) {
+                    System.err.println("Keeping question and answer bodies in memory: " + e.getMessage());
+                }
+                
+                // Searches run on worker threads and report back on the JavaFX thread
+                sharedSearchService = new SearchService(sharedQuestions, Platform::runLater);
             }
         }
         
@@ -60,6 +100,8 @@ public class StudentDashboard {
         this.answers = sharedAnswers;
         this.currentView = "welcome";
         this.replies = sharedReplies; 
+        this.threads = new QuestionThreads(questions, answers, replies);
+        this.searchService = sharedSearchService;
         
         // Load sample data only once
         synchronized (StudentDashboard.class) {
@@ -218,6 +260,13 @@ public class StudentDashboard {
         VBox questionsContainer = new VBox(10);
         scrollPane.setContent(questionsContainer);
         
+        // Load the next page when the list is scrolled to the bottom
+        scrollPane.vvalueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal.doubleValue() >= scrollPane.getVmax() && listHasMore) {
+                appendQuestionsPage(questionsContainer);
+            }
+        });
+        
         updateQuestionsListContent(questionsContainer, "All");
         
         panel.getChildren().addAll(headerBox, scrollPane);
@@ -233,40 +282,60 @@ public class StudentDashboard {
     private void updateQuestionsListContent(VBox container, String filter) {
         container.getChildren().clear();
         
-        java.util.List<Question> questionsList;
+        listFilter = filter;
+        listCursor = null;
+        listHasMore = false;
+        appendQuestionsPage(container);
+        
+        if (container.getChildren().isEmpty()) {
+            Label noQuestionsLabel = new Label("No questions found");
+            noQuestionsLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: " + TEXT_SECONDARY + ";");
+            container.getChildren().add(noQuestionsLabel);
+        }
+    }
+    
+    //Appends the next page of the current filter to the questions list
+    private void appendQuestionsPage(VBox container) {
+        QuestionPage page;
         
-        switch (filter) {
+        switch (listFilter) {
             case "Unresolved":
-                questionsList = questions.getUnresolvedQuestions();
+                page = questions.page("unresolved", listCursor, QUESTIONS_PAGE_SIZE);
                 break;
             case "My Unresolved":
-                questionsList = questions.getMyUnresolvedQuestions(currentUser.getUserName());
-                break;
-            case "Most Recent":
-                questionsList = questions.getAllQuestionsSortedByMostRecent();
+                page = questions.pageByAuthor(currentUser.getUserName(), true, listCursor, QUESTIONS_PAGE_SIZE);
                 break;
             case "Answered":
-                questionsList = questions.getAnsweredQuestions();
+                page = questions.page("answered", listCursor, QUESTIONS_PAGE_SIZE);
                 break;
             case "Unanswered":
-                questionsList = questions.getUnansweredQuestions();
+                page = questions.page("unanswered", listCursor, QUESTIONS_PAGE_SIZE);
                 break;
             default:
-                questionsList = questions.getAllQuestionsSortedByMostRecent();
+                page = questions.page("all", listCursor, QUESTIONS_PAGE_SIZE);
                 break;
         }
         
-        if (questionsList.isEmpty()) {
-            Label noQuestionsLabel = new Label("No questions found");
-            noQuestionsLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: " + TEXT_SECONDARY + ";");
-            container.getChildren().add(noQuestionsLabel);
-            return;
+        // Drop the previous "Load more" link before adding items
+        if (listHasMore && !container.getChildren().isEmpty()) {
+            container.getChildren().remove(container.getChildren().size() - 1);
         }
         
-        for (Question q : questionsList) {
+        for (Question q : page.getQuestions()) {
             VBox questionItem = createQuestionListItem(q);
             container.getChildren().add(questionItem);
         }
+        
+        listCursor = page.getNextCursor();
+        listHasMore = page.hasMore();
+        
+        // Fallback for when the first page does not fill the panel and cannot be scrolled
+        if (listHasMore) {
+            Hyperlink loadMoreLink = new Hyperlink("Load more");
+            loadMoreLink.setStyle("-fx-text-fill: " + PRIMARY_BLUE + "; -fx-font-size: 12px;");
+            loadMoreLink.setOnAction(e -> appendQuestionsPage(container));
+            container.getChildren().add(loadMoreLink);
+        }
     }
     
     private VBox createQuestionListItem(Question question) {
@@ -327,6 +396,47 @@ public class StudentDashboard {
         return item;
     }
     
+    //Question card for a search result: matched words highlighted in the title, plus the best snippet of the body
+    private VBox createSearchResultItem(SearchHit hit) {
+        Question question = hit.getQuestion();
+        VBox item = createQuestionListItem(question);
+        
+        // The title label is the card's first child
+        TextFlow titleFlow = createHighlightedText(question.getTitle(), hit.getTitleHighlights(),
+                                                   "-fx-font-size: 14px; -fx-font-weight: bold; -fx-fill: " + TEXT_PRIMARY + ";");
+        item.getChildren().set(0, titleFlow);
+        
+        if (!hit.getSnippet().isEmpty()) {
+            TextFlow snippetFlow = createHighlightedText(hit.getSnippet(), hit.getSnippetHighlights(),
+                                                         "-fx-font-size: 12px; -fx-fill: " + TEXT_SECONDARY + ";");
+            item.getChildren().add(1, snippetFlow);
+        }
+        return item;
+    }
+    
+    //Splits text into plain and highlighted runs
+    private TextFlow createHighlightedText(String text, java.util.List<SearchHit.Range> highlights, String style) {
+        TextFlow flow = new TextFlow();
+        int position = 0;
+        for (SearchHit.Range range : highlights) {
+            if (range.getStart() > position) {
+                Text plain = new Text(text.substring(position, range.getStart()));
+                plain.setStyle(style);
+                flow.getChildren().add(plain);
+            }
+            Text match = new Text(text.substring(range.getStart(), range.getEnd()));
+            match.setStyle(style + " -fx-font-weight: bold; -fx-fill: " + PRIMARY_BLUE + ";");
+            flow.getChildren().add(match);
+            position = range.getEnd();
+        }
+        if (position < text.length()) {
+            Text plain = new Text(text.substring(position));
+            plain.setStyle(style);
+            flow.getChildren().add(plain);
+        }
+        return flow;
+    }
+    
     private void showAskQuestionView() {
         currentView = "ask";
         centerPanel.getChildren().clear();
@@ -349,6 +459,10 @@ public class StudentDashboard {
         Label titleCountLabel = new Label("0/" + Question.getMaxTitleLength());
         titleCountLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: " + TEXT_SECONDARY + ";");
         
+        // Similar questions are looked up once typing pauses
+        VBox similarBox = new VBox(5);
+        PauseTransition similarDelay = new PauseTransition(Duration.millis(TYPEAHEAD_DELAY_MS));
+        
         titleField.textProperty().addListener((obs, oldVal, newVal) -> {
             titleCountLabel.setText(newVal.length() + "/" + Question.getMaxTitleLength());
             if (newVal.length() > Question.getMaxTitleLength()) {
@@ -358,6 +472,7 @@ public class StudentDashboard {
                 titleErrorLabel.setText("");
                 titleCountLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: " + TEXT_SECONDARY + ";");
             }
+            similarDelay.playFromStart();
         });
         
         Label bodyFieldLabel = new Label("Question Body (max " + Question.getMaxBodyLength() + " characters):");
@@ -386,8 +501,11 @@ public class StudentDashboard {
                 bodyErrorLabel.setText("");
                 bodyCountLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: " + TEXT_SECONDARY + ";");
             }
+            similarDelay.playFromStart();
         });
         
+        similarDelay.setOnFinished(e -> showSimilarQuestions(titleField.getText(), bodyField.getText(), similarBox));
+        
         Button submitButton = new Button("Submit");
         submitButton.setStyle("-fx-background-color: " + PRIMARY_BLUE + "; -fx-text-fill: white; " +
                              "-fx-font-size: 14px; -fx-background-radius: 20; -fx-padding: 10 20;");
@@ -420,7 +538,7 @@ public class StudentDashboard {
             }
             
             // Check for duplicate question
-            if (isDuplicateQuestion(title, body)) {
+            if (questions.isDuplicate(title, body)) {
                 titleErrorLabel.setText("Duplicates not allowed");
                 return;
             }
@@ -428,6 +546,7 @@ public class StudentDashboard {
             Question newQuestion = new Question(title, body, currentUser.getUserName());
             questions.addQuestion(newQuestion);
             
+            similarDelay.stop();
             titleField.clear();
             bodyField.clear();
             titleCountLabel.setText("0/" + Question.getMaxTitleLength());
@@ -438,7 +557,32 @@ public class StudentDashboard {
         });
         
         centerPanel.getChildren().addAll(headingLabel, titleFieldLabel, titleField, titleCountLabel, 
-            titleErrorLabel, bodyFieldLabel, bodyField, bodyCountLabel, bodyErrorLabel, submitButton);
+            titleErrorLabel, bodyFieldLabel, bodyField, bodyCountLabel, bodyErrorLabel, similarBox, submitButton);
+    }
+    
+    //Lists already-asked questions worded like the one being typed
+    private void showSimilarQuestions(String title, String body, VBox similarBox) {
+        similarBox.getChildren().clear();
+        
+        if (!"ask".equals(currentView) || (title.trim().isEmpty() && body.trim().isEmpty())) {
+            return;
+        }
+        
+        java.util.List<Question> similar = questions.findSimilarQuestions(title, body, SIMILAR_QUESTIONS_LIMIT);
+        if (similar.isEmpty()) {
+            return;
+        }
+        
+        Label similarLabel = new Label("Similar questions already asked:");
+        similarLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: " + TEXT_PRIMARY + ";");
+        similarBox.getChildren().add(similarLabel);
+        
+        for (Question q : similar) {
+            Hyperlink questionLink = new Hyperlink(q.getTitle() + (q.isResolved() ? " (Resolved)" : ""));
+            questionLink.setStyle("-fx-text-fill: " + PRIMARY_BLUE + "; -fx-font-size: 13px;");
+            questionLink.setOnAction(e -> showQuestionDetails(q));
+            similarBox.getChildren().add(questionLink);
+        }
     }
     
     private void showSearchView() {
@@ -456,7 +600,16 @@ public class StudentDashboard {
         searchFilterCombo.setValue("All");
         searchFilterCombo.setStyle("-fx-text-fill: " + PRIMARY_BLUE + "; -fx-font-size: 12px;");
         
-        headingBox.getChildren().addAll(headingLabel, new Label("Filter:"), searchFilterCombo);
+        ComboBox<String> searchSortCombo = new ComboBox<>();
+        searchSortCombo.getItems().addAll("Most Recent", "Relevance");
+        searchSortCombo.setValue("Most Recent");
+        searchSortCombo.setStyle("-fx-text-fill: " + PRIMARY_BLUE + "; -fx-font-size: 12px;");
+        
+        CheckBox typoTolerantCheck = new CheckBox("Typo tolerant");
+        typoTolerantCheck.setStyle("-fx-text-fill: " + TEXT_SECONDARY + "; -fx-font-size: 12px;");
+        
+        headingBox.getChildren().addAll(headingLabel, new Label("Filter:"), searchFilterCombo,
+            new Label("Sort:"), searchSortCombo, typoTolerantCheck);
         
         TextField searchField = new TextField();
         searchField.setPromptText("Enter keywords to search (max " + Question.getMaxTitleLength() + " characters)");
@@ -469,6 +622,25 @@ public class StudentDashboard {
         Label searchCountLabel = new Label("0/" + Question.getMaxTitleLength());
         searchCountLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: " + TEXT_SECONDARY + ";");
         
+        Button searchButton = new Button("Search");
+        searchButton.setStyle("-fx-background-color: " + PRIMARY_BLUE + "; -fx-text-fill: white; " +
+                             "-fx-font-size: 14px; -fx-background-radius: 20; -fx-padding: 10 20;");
+        
+        // Suggestions are looked up in the background once typing pauses; each keystroke
+        // restarts the delay, and each lookup cancels the one started for the previous text
+        VBox suggestionsBox = new VBox(5);
+        PauseTransition typeaheadDelay = new PauseTransition(Duration.millis(TYPEAHEAD_DELAY_MS));
+        typeaheadDelay.setOnFinished(e -> {
+            String partialQuery = searchField.getText();
+            if (partialQuery.trim().isEmpty()) {
+                searchService.cancelSuggestions();
+                suggestionsBox.getChildren().clear();
+                return;
+            }
+            searchService.suggest(partialQuery, TYPEAHEAD_SUGGESTIONS, suggestions ->
+                showTypeaheadSuggestions(suggestions, suggestionsBox, searchField, searchButton));
+        });
+        
         searchField.textProperty().addListener((obs, oldVal, newVal) -> {
             searchCountLabel.setText(newVal.length() + "/" + Question.getMaxTitleLength());
             if (newVal.length() > Question.getMaxTitleLength()) {
@@ -478,12 +650,9 @@ public class StudentDashboard {
                 searchErrorLabel.setText("");
                 searchCountLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: " + TEXT_SECONDARY + ";");
             }
+            typeaheadDelay.playFromStart();
         });
         
-        Button searchButton = new Button("Search");
-        searchButton.setStyle("-fx-background-color: " + PRIMARY_BLUE + "; -fx-text-fill: white; " +
-                             "-fx-font-size: 14px; -fx-background-radius: 20; -fx-padding: 10 20;");
-        
         VBox resultsContainer = new VBox(10);
         resultsContainer.setStyle("-fx-padding: 20 0 0 0;");
         
@@ -497,6 +666,9 @@ public class StudentDashboard {
             String searchQuery = searchField.getText().trim();
             searchErrorLabel.setText("");
             resultsContainer.getChildren().clear();
+            typeaheadDelay.stop();
+            searchService.cancelSuggestions();
+            suggestionsBox.getChildren().clear();
             
             if (searchQuery.isEmpty()) {
                 searchErrorLabel.setText("Field cannot be left empty");
@@ -508,25 +680,89 @@ public class StudentDashboard {
                 return;
             }
             
-            java.util.List<Question> searchResults = questions.searchQuestionsWithFilter(searchQuery, searchFilterCombo.getValue());
+            Label searchingLabel = new Label("Searching...");
+            searchingLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: " + TEXT_SECONDARY + ";");
+            resultsContainer.getChildren().add(searchingLabel);
             
-            if (searchResults.isEmpty()) {
-                Label noResultsLabel = new Label("No questions found matching your search");
-                noResultsLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: " + TEXT_SECONDARY + ";");
-                resultsContainer.getChildren().add(noResultsLabel);
-            } else {
-                Label resultsLabel = new Label("Found " + searchResults.size() + " result(s):");
-                resultsLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: " + TEXT_PRIMARY + ";");
-                resultsContainer.getChildren().add(resultsLabel);
-                
-                for (Question q : searchResults) {
-                    VBox questionItem = createQuestionListItem(q);
-                    resultsContainer.getChildren().add(questionItem);
-                }
-            }
+            // Runs in the background; a newer search cancels this one
+            boolean byRelevance = "Relevance".equals(searchSortCombo.getValue());
+            boolean fuzzy = typoTolerantCheck.isSelected();
+            searchService.search(searchQuery, searchFilterCombo.getValue(), byRelevance, fuzzy, RELEVANCE_RESULT_LIMIT,
+                results -> showSearchResults(results, resultsContainer));
         });
         
-        centerPanel.getChildren().addAll(headingBox, searchField, searchCountLabel, searchErrorLabel, searchButton, resultsScrollPane);
+        centerPanel.getChildren().addAll(headingBox, searchField, suggestionsBox, searchCountLabel, searchErrorLabel, searchButton, resultsScrollPane);
+    }
+    
+    //Shows the results of a finished search (called on the JavaFX thread)
+    private void showSearchResults(SearchService.Results results, VBox resultsContainer) {
+        if (!"search".equals(currentView)) {
+            return;
+        }
+        resultsContainer.getChildren().clear();
+        
+        if (results.getQuestions().isEmpty()) {
+            Label noResultsLabel = new Label("No questions found matching your search");
+            noResultsLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: " + TEXT_SECONDARY + ";");
+            resultsContainer.getChildren().add(noResultsLabel);
+        } else {
+            Label resultsLabel = new Label(results.isByRelevance()
+                ? "Top " + results.getQuestions().size() + " result(s) by relevance:"
+                : "Found " + results.getQuestions().size() + " result(s):");
+            resultsLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: " + TEXT_PRIMARY + ";");
+            resultsContainer.getChildren().add(resultsLabel);
+            
+            appendSearchResultsPage(results, resultsContainer, 0);
+        }
+    }
+    
+    //Appends a page of search results, highlighting only the questions on it (each reads its body)
+    private void appendSearchResultsPage(SearchService.Results results, VBox resultsContainer, int from) {
+        int to = from + RELEVANCE_RESULT_LIMIT;
+        for (SearchHit hit : results.getHits(from, to)) {
+            VBox questionItem = createSearchResultItem(hit);
+            resultsContainer.getChildren().add(questionItem);
+        }
+        
+        if (to < results.getQuestions().size()) {
+            Hyperlink loadMoreLink = new Hyperlink("Load more");
+            loadMoreLink.setStyle("-fx-text-fill: " + PRIMARY_BLUE + "; -fx-font-size: 12px;");
+            loadMoreLink.setOnAction(e -> {
+                resultsContainer.getChildren().remove(loadMoreLink);
+                appendSearchResultsPage(results, resultsContainer, to);
+            });
+            resultsContainer.getChildren().add(loadMoreLink);
+        }
+    }
+    
+    //Shows title completions and matching questions for the text typed so far (called on the JavaFX thread)
+    private void showTypeaheadSuggestions(SearchService.Suggestions suggestions, VBox suggestionsBox, TextField searchField, Button searchButton) {
+        suggestionsBox.getChildren().clear();
+        
+        if (!"search".equals(currentView)) {
+            return;
+        }
+        
+        HBox completionsBox = new HBox(10);
+        for (String completion : suggestions.getCompletions()) {
+            Hyperlink completionLink = new Hyperlink(completion);
+            completionLink.setStyle("-fx-text-fill: " + PRIMARY_BLUE + "; -fx-font-size: 12px;");
+            completionLink.setOnAction(e -> {
+                searchField.setText(completion);
+                searchButton.fire();
+            });
+            completionsBox.getChildren().add(completionLink);
+        }
+        if (!completionsBox.getChildren().isEmpty()) {
+            suggestionsBox.getChildren().add(completionsBox);
+        }
+        
+        for (Question q : suggestions.getQuestions()) {
+            Hyperlink questionLink = new Hyperlink(q.getTitle());
+            questionLink.setStyle("-fx-text-fill: " + TEXT_PRIMARY + "; -fx-font-size: 13px;");
+            questionLink.setOnAction(e -> showQuestionDetails(q));
+            suggestionsBox.getChildren().add(questionLink);
+        }
     }
     
     private void showQuestionDetails(Question question) {
@@ -597,12 +833,8 @@ public class StudentDashboard {
                     
                     confirmAlert.showAndWait().ifPresent(response -> {
                         if (response == ButtonType.OK) {
-                        	//Deletes all replies for answer - NEW
-                        	for (Answer ans : answers.getAnswersForQuestion(question.getQuestionId())) {
-                        		replies.deleteAllRepliesForAnswer(ans.getAnswerId()); 
-                        	}
-                            answers.deleteAllAnswersForQuestion(question.getQuestionId());
-                            questions.deleteQuestion(question.getQuestionId());
+                            // Deletes the question with its answers and their replies
+                            threads.deleteThread(question.getQuestionId());
                             updateQuestionsList("All");
                             showWelcomeView();
                         }
@@ -672,7 +904,7 @@ public class StudentDashboard {
                 }
                 
                 // Check for duplicate answer
-                if (isDuplicateAnswer(question.getQuestionId(), answerContent)) {
+                if (answers.isDuplicate(question.getQuestionId(), answerContent)) {
                     answerErrorLabel.setText("Duplicates not allowed");
                     return;
                 }
@@ -701,16 +933,17 @@ public class StudentDashboard {
             answersSection.getChildren().addAll(answerHeading, new Separator());
         }
         
-        java.util.List<Answer> questionAnswers = answers.getAnswersForQuestionWithResolvedFirst(
-            question.getQuestionId(), question.getResolvedAnswerId());
+        // Answers and their replies are loaded together
+        QuestionThread thread = threads.load(question.getQuestionId());
+        java.util.List<Answer> questionAnswers = thread == null ? java.util.Collections.emptyList() : thread.getAnswers();
         
         if (questionAnswers.isEmpty()) {
             Label noAnswersLabel = new Label("No answers yet. Be the first to answer!");
             noAnswersLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: " + TEXT_SECONDARY + ";");
             answersSection.getChildren().add(noAnswersLabel);
         } else {
-            for (Answer answer : questionAnswers) {
-                VBox answerBox = createAnswerBox(answer, question);
+            for (int i = 0; i < questionAnswers.size(); i++) {
+                VBox answerBox = createAnswerBox(questionAnswers.get(i), thread.getReplies(i), question);
                 answersSection.getChildren().add(answerBox);
             }
         }
@@ -721,7 +954,7 @@ public class StudentDashboard {
         centerPanel.getChildren().add(scrollPane);
     }
     
-    private VBox createAnswerBox(Answer answer, Question question) {
+    private VBox createAnswerBox(Answer answer, java.util.List<Reply> answerReplies, Question question) {
     	
     	//outer container for replies to answers -- NEW 
     	VBox mainBox = new VBox(10);
@@ -827,7 +1060,7 @@ public class StudentDashboard {
         mainBox.getChildren().add(answerBox); 
         
         //Create the reply Section -- NEW
-        VBox replySection = createReplySection(answer, question); 
+        VBox replySection = createReplySection(answer, answerReplies, question); 
         mainBox.getChildren().add(replySection); 
         
         //Return the mainBox (Includes answers and replies together) -- NEW
@@ -1015,17 +1248,13 @@ public class StudentDashboard {
     
     
     //Creates a reply section for answer -- NEW METHOD
-    private VBox createReplySection(Answer answer, Question question) {
+    private VBox createReplySection(Answer answer, java.util.List<Reply> existingReplies, Question question) {
     	
     	VBox replySection = new VBox(10);
     	
     	//indent replies -- NEW
     	replySection.setStyle("-fx-padding: 0 0 0 30;");
     	
-    	//Get existing replies
-    	java.util.List<Reply> existingReplies = replies.getRepliesForAnswers(answer.getAnswerId()); 
-    	
-    	
     	//Display replies -- NEW
     	if(!existingReplies.isEmpty()) {
     		for(Reply reply : existingReplies) {
@@ -1264,24 +1493,6 @@ public class StudentDashboard {
         questions.updateQuestion(q5);
     }
     
-    private boolean isDuplicateQuestion(String title, String body) {
-        for (Question q : questions.getAllQuestions()) {
-            if (q.getTitle().equalsIgnoreCase(title) && q.getBody().equalsIgnoreCase(body)) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    private boolean isDuplicateAnswer(String questionId, String content) {
-        for (Answer a : answers.getAnswersForQuestion(questionId)) {
-            if (a.getContent().equalsIgnoreCase(content)) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
     private void showEditAnswerView(Answer answer, Question question) {
         Alert dialog = new Alert(Alert.AlertType.NONE);
         dialog.setTitle("Edit Answer");
@@ -1339,12 +1550,9 @@ public class StudentDashboard {
                 }
                 
                 // Check for duplicate (excluding current answer)
-                for (Answer a : answers.getAnswersForQuestion(question.getQuestionId())) {
-                    if (!a.getAnswerId().equals(answer.getAnswerId()) && 
-                        a.getContent().equalsIgnoreCase(newContent)) {
-                        errorLabel.setText("Duplicates not allowed");
-                        return;
-                    }
+                if (answers.isDuplicate(question.getQuestionId(), newContent, answer.getAnswerId())) {
+                    errorLabel.setText("Duplicates not allowed");
+                    return;
                 }
                 
                 answer.setContent(newContent);
@@ -0,0 +1,238 @@
+package application;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Our TitlePrefixIndex class keeps the words of every question title in a sorted
+ * dictionary, so all the words starting with a partial word sit next to each other.
+ * A search-as-you-type lookup walks only that range instead of scanning every title.
+ *
+ * Like SearchIndex, the index is guarded by a read-write lock.
+ */
+public class TitlePrefixIndex {
+
+    // Title word -> IDs of the questions whose title contains that word
+    private NavigableMap<String, Set<String>> wordQuestions;
+
+    // Question ID -> title words indexed for that question (needed to unindex edited questions)
+    private Map<String, Set<String>> questionWords;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor initializes an empty index.
+     */
+    public TitlePrefixIndex() {
+        this.wordQuestions = new TreeMap<>();
+        this.questionWords = new HashMap<>();
+    }
+
+    //Index Maintenance
+
+    /**
+     * Indexes the words of a question's title.
+     * Any words previously indexed for the same question ID are replaced.
+     *
+     * question The question to index
+     */
+    public void addQuestion(Question question) {
+        lock.writeLock().lock();
+        try {
+            if (question == null || question.getQuestionId() == null) {
+                return;
+            }
+
+            String questionId = question.getQuestionId();
+            removeQuestion(questionId);
+
+            Set<String> words = new HashSet<>(tokenize(question.getTitle()));
+            for (String word : words) {
+                wordQuestions.computeIfAbsent(word, w -> new HashSet<>()).add(questionId);
+            }
+            questionWords.put(questionId, words);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes a question after its title has changed.
+     *
+     * question The edited question
+     */
+    public void updateQuestion(Question question) {
+        addQuestion(question);
+    }
+
+    /**
+     * Removes every title word indexed for a question.
+     *
+     * questionId The ID of the question to remove
+     */
+    public void removeQuestion(String questionId) {
+        lock.writeLock().lock();
+        try {
+            Set<String> words = questionWords.remove(questionId);
+            if (words == null) {
+                return;
+            }
+
+            for (String word : words) {
+                Set<String> ids = wordQuestions.get(word);
+                if (ids != null) {
+                    ids.remove(questionId);
+                    if (ids.isEmpty()) {
+                        wordQuestions.remove(word);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes everything from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            wordQuestions.clear();
+            questionWords.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Lookups
+
+    /**
+     * Finds the most common title words starting with a prefix.
+     * Only the range of the dictionary starting with the prefix is visited, and only
+     * the best `limit` words are kept in a bounded min-heap.
+     *
+     * prefix The lowercased partial word
+     * limit Maximum number of words to return
+     * return Completions, most frequent first (ties in alphabetical order)
+     */
+    public List<String> complete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            if (prefix == null || prefix.isEmpty() || limit <= 0) {
+                return new ArrayList<>();
+            }
+
+            // Weakest completion at the head: fewest questions, then alphabetically last
+            Comparator<Map.Entry<String, Set<String>>> order =
+                    Comparator.<Map.Entry<String, Set<String>>>comparingInt(e -> e.getValue().size())
+                            .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+            PriorityQueue<Map.Entry<String, Set<String>>> best = new PriorityQueue<>(limit + 1, order);
+            for (Map.Entry<String, Set<String>> entry : range(prefix).entrySet()) {
+                if (best.size() < limit) {
+                    best.add(entry);
+                } else if (order.compare(entry, best.peek()) > 0) {
+                    best.poll();
+                    best.add(entry);
+                }
+            }
+
+            String[] words = new String[best.size()];
+            for (int i = words.length - 1; i >= 0; i--) {
+                words[i] = best.poll().getKey();
+            }
+            return Arrays.asList(words);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the questions with a title word starting with a prefix.
+     *
+     * prefix The lowercased partial word
+     * return IDs of the matching questions
+     */
+    public Set<String> findQuestions(String prefix) {
+        lock.readLock().lock();
+        try {
+            Set<String> matches = new HashSet<>();
+            if (prefix == null || prefix.isEmpty()) {
+                return matches;
+            }
+            for (Set<String> ids : range(prefix).values()) {
+                matches.addAll(ids);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of distinct title words in the index.
+     *
+     * return Dictionary size
+     */
+    public int getWordCount() {
+        lock.readLock().lock();
+        try {
+            return wordQuestions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Helper Methods
+
+    /**
+     * Splits text into lowercased words, dropping punctuation so "list?" completes as "list".
+     * Words are split on the original text (see isWordChar) and lowercased afterwards, so
+     * their boundaries are the ones a caller finds by scanning that text.
+     *
+     * text Title text or partial query (may be null)
+     * return The words in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); ) {
+            int codePoint = i < text.length() ? text.codePointAt(i) : ' ';
+            if (isWordChar(codePoint)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                words.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return words;
+    }
+
+    /**
+     * Checks whether a character belongs to a word: any letter or number (\p{L} or \p{N},
+     * so fractions like '½' and Roman numerals count, unlike Character.isLetterOrDigit).
+     *
+     * codePoint The character
+     * return true if it is part of a word
+     */
+    public static boolean isWordChar(int codePoint) {
+        if (Character.isLetter(codePoint)) {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.DECIMAL_DIGIT_NUMBER || type == Character.LETTER_NUMBER ||
+               type == Character.OTHER_NUMBER;
+    }
+
+    // Every dictionary word starting with the prefix
+    private SortedMap<String, Set<String>> range(String prefix) {
+        return wordQuestions.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Our WhitespaceAnalyzer class splits text on whitespace and lowercases the pieces,
+ * punctuation included ("list?" stays "list?"). This is how search worked before
+ * analyzers were added: every keyword matches any term containing it.
+ */
+public class WhitespaceAnalyzer implements Analyzer {
+
+    @Override
+    public List<Token> analyze(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int i = 0;
+        while (i < text.length()) {
+            while (i < text.length() && isSeparator(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < text.length() && !isSeparator(text.charAt(i))) {
+                i++;
+            }
+            if (start < i) {
+                tokens.add(new Token(text.substring(start, i).toLowerCase(), tokens.size(), start, i));
+            }
+        }
+        return tokens;
+    }
+
+    // The characters \s matches: space, tab, newline, vertical tab, form feed, carriage return
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    @Override
+    public String toString() {
+        return "WhitespaceAnalyzer";
+    }
+}
\ No newline at end of file